@@ -227,7 +227,7 @@ public class LoopExecutingAtMostOnceCheck extends IssuableSubscriptionVisitor {
     } while (!currentTree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.INITIALIZER, Tree.Kind.STATIC_INITIALIZER));
 
     if (currentTree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)) {
-      return CFG.build((MethodTree) currentTree);
+      return (CFG) ((MethodTree) currentTree).cfg();
     }
     if (currentTree.is(Tree.Kind.LAMBDA_EXPRESSION)) {
       currentTree = ((LambdaExpressionTree) currentTree).body();
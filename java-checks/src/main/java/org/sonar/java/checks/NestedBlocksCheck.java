@@ -20,43 +20,36 @@
 package org.sonar.java.checks;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.CaseGroupTree;
 import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Rule(key = "S1199")
-public class NestedBlocksCheck extends BaseTreeVisitor implements JavaFileScanner {
-
-  private JavaFileScannerContext context;
+public class NestedBlocksCheck extends IssuableSubscriptionVisitor {
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CASE_GROUP, Tree.Kind.BLOCK, Tree.Kind.INITIALIZER, Tree.Kind.STATIC_INITIALIZER);
   }
 
   @Override
-  public void visitCaseGroup(CaseGroupTree tree) {
-    checkStatements(tree.body());
-    super.visitCaseGroup(tree);
-  }
-
-  @Override
-  public void visitBlock(BlockTree tree) {
-    checkStatements(tree.body());
-    super.visitBlock(tree);
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.CASE_GROUP)) {
+      checkStatements(((CaseGroupTree) tree).body());
+    } else {
+      checkStatements(((BlockTree) tree).body());
+    }
   }
 
   private void checkStatements(List<StatementTree> statements) {
     for (StatementTree statement : statements) {
       if (statement.is(Tree.Kind.BLOCK)) {
-        context.reportIssue(this, ((BlockTree) statement).openBraceToken(), "Extract this nested code block into a method.");
+        reportIssue(((BlockTree) statement).openBraceToken(), "Extract this nested code block into a method.");
       }
     }
   }
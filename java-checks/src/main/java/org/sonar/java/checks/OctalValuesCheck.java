@@ -20,27 +20,25 @@
 package org.sonar.java.checks;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.LiteralTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
-@Rule(key = "S1314")
-public class OctalValuesCheck extends BaseTreeVisitor implements JavaFileScanner {
+import java.util.Collections;
+import java.util.List;
 
-  private JavaFileScannerContext context;
+@Rule(key = "S1314")
+public class OctalValuesCheck extends IssuableSubscriptionVisitor {
 
   @Override
-  public void scanFile(final JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.INT_LITERAL);
   }
 
   @Override
-  public void visitLiteral(LiteralTree tree) {
-    if (tree.is(Tree.Kind.INT_LITERAL) && isOctal(tree.value())) {
-      context.reportIssue(this, tree, "Use decimal values instead of octal ones.");
+  public void visitNode(Tree tree) {
+    if (isOctal(((LiteralTree) tree).value())) {
+      reportIssue(tree, "Use decimal values instead of octal ones.");
     }
   }
 
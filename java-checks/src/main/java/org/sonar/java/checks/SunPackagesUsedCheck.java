@@ -22,18 +22,18 @@ package org.sonar.java.checks;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.checks.helpers.ExpressionsHelper;
-import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Rule(key = "S1191")
-public class SunPackagesUsedCheck extends BaseTreeVisitor implements JavaFileScanner {
+public class SunPackagesUsedCheck extends IssuableSubscriptionVisitor {
 
   private List<Tree> reportedTrees = new ArrayList<>();
 
@@ -47,32 +47,42 @@ public class SunPackagesUsedCheck extends BaseTreeVisitor implements JavaFileSca
   private String[] excludePackages = null;
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.MEMBER_SELECT);
+  }
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
     reportedTrees.clear();
     excludePackages = exclude.split(",");
-    scan(context.getTree());
+    super.setContext(context);
+  }
 
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
     if (!reportedTrees.isEmpty()) {
-      reportIssueWithSecondaries(context);
+      reportIssueWithSecondaries();
     }
   }
 
-  private void reportIssueWithSecondaries(JavaFileScannerContext context) {
+  private void reportIssueWithSecondaries() {
     List<JavaFileScannerContext.Location> secondaries = reportedTrees.stream()
       .skip(1)
       .map(tree -> new JavaFileScannerContext.Location("", tree))
       .collect(Collectors.toList());
 
     int effortToFix = reportedTrees.size();
-    context.reportIssue(this, reportedTrees.get(0), "Use classes from the Java API instead of Sun classes.", secondaries, effortToFix);
+    reportIssue(reportedTrees.get(0), "Use classes from the Java API instead of Sun classes.", secondaries, effortToFix);
   }
 
   @Override
-  public void visitMemberSelectExpression(MemberSelectExpressionTree tree) {
-    String reference = ExpressionsHelper.concatenate(tree);
+  public void visitNode(Tree tree) {
+    String reference = ExpressionsHelper.concatenate((MemberSelectExpressionTree) tree);
     if (!isExcluded(reference) && isSunClass(reference)) {
       reportedTrees.add(tree);
     }
+    // only the outermost member select of a qualified name is considered
+    skipChildren(tree);
   }
 
   private static boolean isSunClass(String reference) {
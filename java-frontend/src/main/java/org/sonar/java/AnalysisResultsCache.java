@@ -0,0 +1,275 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.Convert;
+
+/**
+ * Cache of the issues raised by rules on each file, persisted between analyses.
+ *
+ * The cache file is specific to a configuration fingerprint (version of the analyzer, active rules and their parameters, java
+ * version, classpath and its libraries), and entries are keyed by the hash of the file content: when the content of a file did
+ * not change, its issues are replayed instead of executing the checks again. As classes of classpath directories (such as the
+ * output directory of the project) are recompiled between analyses, each entry records the hashes of those its file resolved,
+ * and is only replayed when none of them changed. The file is still parsed and resolved, as visitors computing measures and
+ * highlighting rely on its tree. Files having reported issues outside of themselves or having failed analysis are never cached.
+ */
+public class AnalysisResultsCache {
+
+  private static final Logger LOG = Loggers.get(AnalysisResultsCache.class);
+  private static final Type ENTRIES_TYPE = new TypeToken<Map<String, CachedFile>>() {
+  }.getType();
+
+  private final SonarComponents sonarComponents;
+  private final SquidClassLoader classLoader;
+  private final File cacheFile;
+  private final Map<String, CachedFile> previousEntries;
+  private final Map<String, CachedFile> currentEntries = new HashMap<>();
+  // hashes of the classes of classpath directories, null for library classes
+  private final Map<String, String> classHashes = new HashMap<>();
+  @Nullable
+  private InputFile recordedFile;
+  @Nullable
+  private CachedFile recordedEntry;
+  private int replayedFiles = 0;
+
+  AnalysisResultsCache(SonarComponents sonarComponents, SquidClassLoader classLoader, File cacheFile) {
+    this.sonarComponents = sonarComponents;
+    this.classLoader = classLoader;
+    this.cacheFile = cacheFile;
+    this.previousEntries = load(cacheFile);
+  }
+
+  private static Map<String, CachedFile> load(File cacheFile) {
+    if (!cacheFile.isFile()) {
+      return new HashMap<>();
+    }
+    try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+      Map<String, CachedFile> entries = new Gson().fromJson(reader, ENTRIES_TYPE);
+      return entries == null ? new HashMap<>() : entries;
+    } catch (IOException | JsonParseException e) {
+      LOG.debug("Unable to read analysis cache '{}': {}", cacheFile, e.getMessage());
+      return new HashMap<>();
+    }
+  }
+
+  /**
+   * Report the cached issues of the file if neither its content nor the classes it resolved from classpath directories changed
+   * since they were recorded.
+   *
+   * @return true if issues have been replayed, in which case checks should not be executed on the file.
+   */
+  public boolean replay(InputFile inputFile) {
+    String contentHash = contentHash(inputFile);
+    CachedFile cachedFile = previousEntries.get(key(inputFile));
+    if (cachedFile == null || !contentHash.equals(cachedFile.contentHash) || !classesUnchanged(cachedFile)) {
+      startRecording(inputFile, contentHash);
+      return false;
+    }
+    for (CachedIssue issue : cachedFile.issues) {
+      AnalyzerMessage analyzerMessage = issue.toAnalyzerMessage(inputFile);
+      sonarComponents.reportIssue(analyzerMessage, RuleKey.parse(issue.ruleKey), inputFile, analyzerMessage.getCost());
+    }
+    currentEntries.put(key(inputFile), cachedFile);
+    replayedFiles++;
+    return true;
+  }
+
+  private void startRecording(InputFile inputFile, String contentHash) {
+    recordedFile = inputFile;
+    recordedEntry = new CachedFile(contentHash);
+    sonarComponents.setIssueRecorder(this);
+  }
+
+  void record(AnalyzerMessage analyzerMessage, RuleKey ruleKey, InputComponent inputComponent) {
+    if (recordedEntry == null) {
+      return;
+    }
+    if (!inputComponent.equals(recordedFile)) {
+      invalidateCurrentFile();
+      return;
+    }
+    recordedEntry.issues.add(CachedIssue.from(analyzerMessage, ruleKey));
+  }
+
+  /**
+   * Prevent results of the file being analyzed from being cached, for instance when a check failed on it.
+   */
+  public void invalidateCurrentFile() {
+    recordedEntry = null;
+  }
+
+  /**
+   * @param resolvedClasses flat names of the classes resolved by the semantic model of the file
+   */
+  public void endOfFile(Set<String> resolvedClasses) {
+    if (recordedFile != null && recordedEntry != null) {
+      for (String className : resolvedClasses) {
+        String classHash = classHash(className);
+        if (classHash != null) {
+          recordedEntry.classHashes.put(className, classHash);
+        }
+      }
+      currentEntries.put(key(recordedFile), recordedEntry);
+    }
+    recordedFile = null;
+    recordedEntry = null;
+    sonarComponents.setIssueRecorder(null);
+  }
+
+  /**
+   * Write cached entries of the files analyzed during this analysis. Entries of files which were not analyzed are dropped.
+   */
+  public void save() {
+    LOG.info("Issues of {}/{} files replayed from analysis cache", replayedFiles, currentEntries.size());
+    try {
+      Files.createDirectories(cacheFile.getParentFile().toPath());
+      try (Writer writer = Files.newBufferedWriter(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+        new Gson().toJson(currentEntries, ENTRIES_TYPE, writer);
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to write analysis cache '{}': {}", cacheFile, e.getMessage());
+    }
+  }
+
+  private boolean classesUnchanged(CachedFile cachedFile) {
+    return cachedFile.classHashes.entrySet().stream().allMatch(e -> e.getValue().equals(classHash(e.getKey())));
+  }
+
+  /**
+   * @return hash of the class file when loaded from a directory of the classpath, empty if the class is not found, or null for
+   * library classes, part of the fingerprint of the cache
+   */
+  @CheckForNull
+  private String classHash(String className) {
+    if (classHashes.containsKey(className)) {
+      return classHashes.get(className);
+    }
+    String classHash;
+    if (classLoader.isLoadedFromDirectory(className)) {
+      byte[] bytes = classLoader.getBytesForClass(className);
+      classHash = bytes == null ? "" : Hashing.sha256().hashBytes(bytes).toString();
+    } else {
+      classHash = classLoader.getResource(Convert.bytecodeName(className) + ".class") == null ? "" : null;
+    }
+    classHashes.put(className, classHash);
+    return classHash;
+  }
+
+  private static String key(InputFile inputFile) {
+    return inputFile.toString();
+  }
+
+  private static String contentHash(InputFile inputFile) {
+    try {
+      return Hashing.sha256().hashString(inputFile.contents(), StandardCharsets.UTF_8).toString();
+    } catch (IOException e) {
+      throw new AnalysisException(String.format("Unable to read file '%s'", inputFile), e);
+    }
+  }
+
+  private static class CachedFile {
+    private final String contentHash;
+    private final List<CachedIssue> issues = new ArrayList<>();
+    private final Map<String, String> classHashes = new HashMap<>();
+
+    CachedFile(String contentHash) {
+      this.contentHash = contentHash;
+    }
+  }
+
+  private static class CachedIssue {
+    private String ruleKey;
+    private CachedLocation location;
+    private List<List<CachedLocation>> flows;
+
+    static CachedIssue from(AnalyzerMessage analyzerMessage, RuleKey ruleKey) {
+      CachedIssue issue = new CachedIssue();
+      issue.ruleKey = ruleKey.toString();
+      issue.location = CachedLocation.from(analyzerMessage);
+      issue.flows = analyzerMessage.flows.stream()
+        .map(flow -> flow.stream().map(CachedLocation::from).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+      return issue;
+    }
+
+    AnalyzerMessage toAnalyzerMessage(InputFile inputFile) {
+      AnalyzerMessage analyzerMessage = location.toAnalyzerMessage(inputFile);
+      flows.forEach(flow -> analyzerMessage.flows.add(flow.stream().map(l -> l.toAnalyzerMessage(inputFile)).collect(Collectors.toList())));
+      return analyzerMessage;
+    }
+  }
+
+  private static class CachedLocation {
+    private String message;
+    private int cost;
+    @Nullable
+    private int[] textSpan;
+
+    static CachedLocation from(AnalyzerMessage analyzerMessage) {
+      CachedLocation location = new CachedLocation();
+      location.message = analyzerMessage.getMessage();
+      Double cost = analyzerMessage.getCost();
+      location.cost = cost == null ? 0 : cost.intValue();
+      AnalyzerMessage.TextSpan span = analyzerMessage.primaryLocation();
+      if (span != null) {
+        location.textSpan = new int[] {span.startLine, span.startCharacter, span.endLine, span.endCharacter};
+      }
+      return location;
+    }
+
+    AnalyzerMessage toAnalyzerMessage(InputFile inputFile) {
+      return new AnalyzerMessage(null, inputFile, textSpan(), message, cost);
+    }
+
+    @CheckForNull
+    private AnalyzerMessage.TextSpan textSpan() {
+      if (textSpan == null) {
+        return null;
+      }
+      return new AnalyzerMessage.TextSpan(textSpan[0], textSpan[1], textSpan[2], textSpan[3]);
+    }
+  }
+}
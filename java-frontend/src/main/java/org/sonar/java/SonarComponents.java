@@ -22,15 +22,22 @@ package org.sonar.java;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.TreeMap;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.ScannerSide;
@@ -38,17 +45,24 @@ import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRule;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.se.ExplorationLimits;
+import org.sonar.java.se.ExplorationStrategy;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaVersion;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 
 @ScannerSide
@@ -61,6 +75,23 @@ public class SonarComponents {
   public static final Metric<String> FEEDBACK_METRIC = new Metric.Builder("sonarjava_feedback", "SonarJava feedback", Metric.ValueType.DATA).setHidden(true).create();
   public static final String COLLECT_ANALYSIS_ERRORS_KEY = "sonar.java.collectAnalysisErrors";
   public static final String FAIL_ON_EXCEPTION_KEY = "sonar.java.failOnException";
+  public static final String ANALYSIS_THREADS_KEY = "sonar.java.analysis.threads";
+  public static final String ANALYSIS_CACHE_KEY = "sonar.java.analysisCache";
+  public static final String CLASS_STRUCTURE_SNAPSHOTS_KEY = "sonar.java.classStructureSnapshots";
+  public static final String MAX_FILE_LINES_KEY = "sonar.java.maxFileLines";
+  public static final String MAX_FILE_SIZE_KEY = "sonar.java.maxFileSize";
+  public static final String LAZY_SEMANTIC_KEY = "sonar.java.lazySemantic";
+  public static final String SE_MAX_STEPS_KEY = "sonar.java.se.maxSteps";
+  public static final String SE_MAX_STARTING_STATES_KEY = "sonar.java.se.maxStartingStates";
+  public static final String SE_MAX_EXEC_PROGRAM_POINT_KEY = "sonar.java.se.maxExecProgramPoint";
+  public static final String SE_METHOD_TIMEOUT_KEY = "sonar.java.se.methodTimeout";
+  public static final String SE_FILE_TIMEOUT_KEY = "sonar.java.se.fileTimeout";
+  public static final String SE_EXPLORATION_STRATEGY_KEY = "sonar.java.se.explorationStrategy";
+  public static final String SE_STATE_SUBSUMPTION_KEY = "sonar.java.se.stateSubsumption";
+  public static final String SE_REPORT_SIZE_KEY = "sonar.java.se.reportSize";
+  public static final String SE_BEHAVIOR_STORE_KEY = "sonar.java.se.behaviorStore";
+  public static final String SE_MAX_CACHED_YIELDS_KEY = "sonar.java.se.maxCachedYields";
+  private static final int ANALYSIS_CACHE_FORMAT_VERSION = 2;
   /**
    * Approximate limit of feedback of 200ko to roughly 100_000 characters of useful feedback.
    * This does not take into account eventual overhead of serialization.
@@ -81,6 +112,8 @@ public class SonarComponents {
   @VisibleForTesting
   public List<AnalysisError> analysisErrors;
   private int errorsSize = 0;
+  @Nullable
+  private AnalysisResultsCache issueRecorder;
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
                          JavaClasspath javaClasspath, JavaTestClasspath javaTestClasspath,
@@ -277,6 +310,9 @@ public class SonarComponents {
   @VisibleForTesting
   void reportIssue(AnalyzerMessage analyzerMessage, RuleKey key, InputComponent fileOrProject, @Nullable Double cost) {
     Objects.requireNonNull(context);
+    if (issueRecorder != null) {
+      issueRecorder.record(analyzerMessage, key, fileOrProject);
+    }
     JavaIssue issue = JavaIssue.create(context, key, cost);
     AnalyzerMessage.TextSpan textSpan = analyzerMessage.primaryLocation();
     if (textSpan == null) {
@@ -294,6 +330,77 @@ public class SonarComponents {
     issue.save();
   }
 
+  void setIssueRecorder(@Nullable AnalysisResultsCache issueRecorder) {
+    this.issueRecorder = issueRecorder;
+  }
+
+  /**
+   * @return the cache of analysis results matching the given configuration, or null if caching is disabled or cannot be used
+   * because scanners rely on results of other files.
+   */
+  @CheckForNull
+  public AnalysisResultsCache analysisResultsCache(List<JavaFileScanner> scanners, List<File> classpath, SquidClassLoader classLoader, JavaVersion javaVersion,
+    boolean crossFileEnabled) {
+    if (!context.config().getBoolean(ANALYSIS_CACHE_KEY).orElse(false) || crossFileEnabled || scanners.stream().anyMatch(EndOfAnalysisCheck.class::isInstance)) {
+      return null;
+    }
+    Hasher hasher = Hashing.sha256().newHasher()
+      .putInt(ANALYSIS_CACHE_FORMAT_VERSION)
+      .putString(analyzerVersion(), StandardCharsets.UTF_8)
+      .putString(javaVersion.toString(), StandardCharsets.UTF_8)
+      .putInt(maxFileLines())
+      .putInt(maxFileSize())
+      .putString(explorationLimits().toString(), StandardCharsets.UTF_8);
+    for (File file : classpath) {
+      hasher.putString(file.getAbsolutePath(), StandardCharsets.UTF_8);
+      // classes of directories (such as the output directory of the project) are recompiled between analyses: each cache entry
+      // records those its file depends on, see AnalysisResultsCache
+      if (!file.isDirectory()) {
+        hasher.putLong(file.length()).putLong(file.lastModified());
+      }
+    }
+    scanners.stream()
+      .map(this::getRuleKey)
+      .filter(Objects::nonNull)
+      .sorted()
+      .forEach(ruleKey -> {
+        hasher.putString(ruleKey.toString(), StandardCharsets.UTF_8);
+        ActiveRule activeRule = context.activeRules().find(ruleKey);
+        if (activeRule != null) {
+          new TreeMap<>(activeRule.params()).forEach((key, value) -> hasher.putString(key, StandardCharsets.UTF_8).putString(value, StandardCharsets.UTF_8));
+        }
+      });
+    return new AnalysisResultsCache(this, classLoader, new File(workDir(), "sonar-java-cache" + File.separator + hasher.hash() + ".json"));
+  }
+
+  private static String analyzerVersion() {
+    // rules of another version of the analyzer can raise different issues
+    String version = SonarComponents.class.getPackage().getImplementationVersion();
+    return version == null ? "" : version;
+  }
+
+  /**
+   * @return directory where structures of library classes are persisted between analyses, or null if disabled
+   */
+  @CheckForNull
+  public File classStructureSnapshotsDirectory() {
+    if (!context.config().getBoolean(CLASS_STRUCTURE_SNAPSHOTS_KEY).orElse(false)) {
+      return null;
+    }
+    return new File(workDir(), "sonar-java-class-snapshots");
+  }
+
+  /**
+   * @return directory where behaviors of library methods are persisted between analyses, or null if disabled
+   */
+  @CheckForNull
+  public File behaviorStoreDirectory() {
+    if (!context.config().getBoolean(SE_BEHAVIOR_STORE_KEY).orElse(false)) {
+      return null;
+    }
+    return new File(workDir(), "sonar-java-behaviors");
+  }
+
   public boolean reportAnalysisError(RecognitionException re, InputFile inputFile) {
     reportAnalysisError(inputFile, re.getMessage());
     return isSonarLintContext();
@@ -353,6 +460,77 @@ public class SonarComponents {
     return context.config().getBoolean(FAIL_ON_EXCEPTION_KEY).orElse(false);
   }
 
+  /**
+   * Number of threads used to read and parse files ahead of the visitors. Values lower than 2 keep the scan sequential.
+   */
+  public int analysisThreads() {
+    return Math.max(1, context.config().getInt(ANALYSIS_THREADS_KEY).orElse(1));
+  }
+
+  /**
+   * Files having more lines than this budget are analyzed without semantic: no symbol table, no symbolic execution, only rules
+   * not requiring semantic are executed. Values lower than 1 disable the budget.
+   */
+  public int maxFileLines() {
+    return context.config().getInt(MAX_FILE_LINES_KEY).orElse(0);
+  }
+
+  /**
+   * Same as {@link #maxFileLines()}, for the number of characters of files.
+   */
+  public int maxFileSize() {
+    return context.config().getInt(MAX_FILE_SIZE_KEY).orElse(0);
+  }
+
+  /**
+   * When enabled, expressions of method bodies are only attributed once a visitor requests their types or symbols.
+   */
+  public boolean lazySemantic() {
+    return context.config().getBoolean(LAZY_SEMANTIC_KEY).orElse(false);
+  }
+
+  /**
+   * Budgets of symbolic execution, defaulting to {@link ExplorationLimits#DEFAULT}. Timeouts are in milliseconds, the exploration
+   * strategy is the name of one of the {@link ExplorationStrategy} constants.
+   */
+  public ExplorationLimits explorationLimits() {
+    Configuration config = context.config();
+    ExplorationLimits defaults = ExplorationLimits.DEFAULT;
+    return new ExplorationLimits(
+      config.getInt(SE_MAX_STEPS_KEY).orElse(defaults.maxSteps()),
+      config.getInt(SE_MAX_STARTING_STATES_KEY).orElse(defaults.maxStartingStates()),
+      config.getInt(SE_MAX_EXEC_PROGRAM_POINT_KEY).orElse(defaults.maxExecProgramPoint()),
+      config.getLong(SE_METHOD_TIMEOUT_KEY).orElse(0L),
+      config.getLong(SE_FILE_TIMEOUT_KEY).orElse(0L),
+      config.get(SE_EXPLORATION_STRATEGY_KEY).map(SonarComponents::explorationStrategy).orElse(defaults.strategy()),
+      config.getBoolean(SE_STATE_SUBSUMPTION_KEY).orElse(defaults.stateSubsumption()));
+  }
+
+  private static ExplorationStrategy explorationStrategy(String name) {
+    try {
+      return ExplorationStrategy.valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format("Invalid value '%s' for %s, expected one of %s", name, SE_EXPLORATION_STRATEGY_KEY,
+        Arrays.toString(ExplorationStrategy.values())), e);
+    }
+  }
+
+  /**
+   * Number of most expensive methods explored by symbolic execution to log at the end of the analysis, along with the limits
+   * which stopped explorations. Values lower than 1 disable the report.
+   */
+  public int explorationReportSize() {
+    return context.config().getInt(SE_REPORT_SIZE_KEY).orElse(0);
+  }
+
+  /**
+   * Maximum number of yields of library methods kept in memory during the analysis, least recently used behaviors being evicted
+   * beyond it. Values lower than 1 keep all behaviors.
+   */
+  public int maxCachedYields() {
+    return context.config().getInt(SE_MAX_CACHED_YIELDS_KEY).orElse(0);
+  }
+
   private boolean shouldCollectAnalysisErrors() {
     return context.config().getBoolean(COLLECT_ANALYSIS_ERRORS_KEY).orElse(false);
   }
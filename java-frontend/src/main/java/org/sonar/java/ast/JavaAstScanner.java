@@ -25,8 +25,17 @@ import com.google.common.collect.Iterables;
 import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.typed.ActionParser;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
@@ -42,6 +51,7 @@ import org.sonarsource.analyzer.commons.ProgressReport;
 
 public class JavaAstScanner {
   private static final Logger LOG = Loggers.get(JavaAstScanner.class);
+  private static final int PARSED_FILES_AHEAD_PER_THREAD = 2;
 
   private final ActionParser<Tree> parser;
   private final SonarComponents sonarComponents;
@@ -57,16 +67,9 @@ public class JavaAstScanner {
     progressReport.start(Iterables.transform(inputFiles, InputFile::toString));
 
     boolean successfullyCompleted = false;
-    boolean cancelled = false;
     try {
-      for (InputFile inputFile : inputFiles) {
-        if (analysisCancelled()) {
-          cancelled = true;
-          break;
-        }
-        simpleScan(inputFile);
-        progressReport.nextFile();
-      }
+      int threads = analysisThreads();
+      boolean cancelled = threads > 1 ? parallelScan(inputFiles, threads, progressReport) : sequentialScan(inputFiles, progressReport);
       successfullyCompleted = !cancelled;
     } finally {
       if (successfullyCompleted) {
@@ -78,16 +81,78 @@ public class JavaAstScanner {
     }
   }
 
+  private boolean sequentialScan(Iterable<InputFile> inputFiles, ProgressReport progressReport) {
+    for (InputFile inputFile : inputFiles) {
+      if (analysisCancelled()) {
+        return true;
+      }
+      simpleScan(parse(inputFile, parser));
+      progressReport.nextFile();
+    }
+    return false;
+  }
+
+  /**
+   * Files are read and parsed ahead of time by a pool of workers, each of them owning its own parser, while visitors are still
+   * executed on the calling thread in the order of the input files: checks are stateful and shared between files, so this keeps
+   * reported issues identical to a sequential scan. The number of files parsed ahead is bounded to keep memory usage under control.
+   */
+  private boolean parallelScan(Iterable<InputFile> inputFiles, int threads, ProgressReport progressReport) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ParserThreadFactory());
+    ThreadLocal<ActionParser<Tree>> workerParser = ThreadLocal.withInitial(JavaParser::createParser);
+    Deque<Future<ParsedFile>> pendingFiles = new ArrayDeque<>();
+    Iterator<InputFile> inputFileIterator = inputFiles.iterator();
+    try {
+      while (inputFileIterator.hasNext() || !pendingFiles.isEmpty()) {
+        while (inputFileIterator.hasNext() && pendingFiles.size() < threads * PARSED_FILES_AHEAD_PER_THREAD) {
+          InputFile inputFile = inputFileIterator.next();
+          pendingFiles.add(executor.submit(() -> parse(inputFile, workerParser.get())));
+        }
+        if (analysisCancelled()) {
+          return true;
+        }
+        simpleScan(awaitParsedFile(pendingFiles.poll()));
+        progressReport.nextFile();
+      }
+      return false;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static ParsedFile awaitParsedFile(Future<ParsedFile> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      throw new AnalysisException("Unable to parse file", e.getCause());
+    }
+  }
+
+  private int analysisThreads() {
+    return sonarComponents == null ? 1 : sonarComponents.analysisThreads();
+  }
+
   private boolean analysisCancelled() {
     return sonarComponents != null && sonarComponents.analysisCancelled();
   }
 
-  private void simpleScan(InputFile inputFile) {
+  private static ParsedFile parse(InputFile inputFile, ActionParser<Tree> parser) {
+    try {
+      return new ParsedFile(inputFile, parser.parse(inputFile.contents()), null);
+    } catch (Exception | StackOverflowError e) {
+      return new ParsedFile(inputFile, null, e);
+    }
+  }
+
+  private void simpleScan(ParsedFile parsedFile) {
+    InputFile inputFile = parsedFile.inputFile;
     visitor.setCurrentFile(inputFile);
     try {
-      String fileContent = inputFile.contents();
-      Tree ast = parser.parse(fileContent);
-      visitor.visitFile(ast);
+      parsedFile.rethrowFailure();
+      visitor.visitFile(parsedFile.ast);
     } catch (RecognitionException e) {
       checkInterrupted(e);
       LOG.error(String.format("Unable to parse source file : '%s'", inputFile));
@@ -126,6 +191,40 @@ public class JavaAstScanner {
     this.visitor = visitor;
   }
 
+  private static class ParsedFile {
+    private final InputFile inputFile;
+    @Nullable
+    private final Tree ast;
+    @Nullable
+    private final Throwable failure;
+
+    ParsedFile(InputFile inputFile, @Nullable Tree ast, @Nullable Throwable failure) {
+      this.inputFile = inputFile;
+      this.ast = ast;
+      this.failure = failure;
+    }
+
+    void rethrowFailure() throws Exception {
+      if (failure instanceof Exception) {
+        throw (Exception) failure;
+      }
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+    }
+  }
+
+  private static class ParserThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "sonar-java-parser-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
   @VisibleForTesting
   public static void scanSingleFileForTests(InputFile file, VisitorsBridge visitorsBridge) {
     scanSingleFileForTests(file, visitorsBridge, new JavaVersionImpl());
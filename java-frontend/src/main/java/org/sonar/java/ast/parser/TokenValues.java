@@ -0,0 +1,78 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.parser;
+
+/**
+ * Shares the {@link String} instances of token values between the tokens of the files parsed by a same parser: keywords,
+ * punctuators and most identifiers are repeated many times, and keeping a single instance of them reduces the size of trees.
+ * Implemented as a fixed-size open-addressing table looked up directly on the source characters, so that no temporary
+ * string is created for values which are already known. Long values (mostly literals and comments) are not shared.
+ */
+class TokenValues {
+
+  private static final int MAX_SHARED_LENGTH = 32;
+  private static final int CAPACITY = 1 << 14;
+  private static final int MAX_SIZE = CAPACITY / 4 * 3;
+
+  private final String[] values = new String[CAPACITY];
+  private int size = 0;
+
+  String value(char[] chars, int startIndex, int endIndex) {
+    int length = endIndex - startIndex;
+    if (length > MAX_SHARED_LENGTH) {
+      return new String(chars, startIndex, length);
+    }
+    int hash = 0;
+    for (int i = startIndex; i < endIndex; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    int mask = CAPACITY - 1;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String candidate;
+    while ((candidate = values[slot]) != null) {
+      if (matches(candidate, chars, startIndex, length)) {
+        return candidate;
+      }
+      slot = (slot + 1) & mask;
+    }
+    String value = new String(chars, startIndex, length);
+    if (size < MAX_SIZE) {
+      values[slot] = value;
+      size++;
+    }
+    return value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private static boolean matches(String candidate, char[] chars, int startIndex, int length) {
+    if (candidate.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (candidate.charAt(i) != chars[startIndex + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -29,6 +29,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.EnumSet;
 import java.util.List;
+import javax.annotation.CheckForNull;
 
 public abstract class SubscriptionVisitor implements JavaFileScanner {
 
@@ -38,6 +39,7 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
   private boolean visitToken;
   private boolean visitTrivia;
   private SemanticModel semanticModel;
+  private Tree skippedTree;
 
   public abstract List<Tree.Kind> nodesToVisit();
 
@@ -49,6 +51,27 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
     //Default behavior : do nothing.
   }
 
+  /**
+   * Skip the children of a tree: to be called from {@link #visitNode(Tree)} with the visited tree.
+   * Nothing below this tree is then visited, and {@link #leaveNode(Tree)} is still called for it.
+   * This is the counterpart of a {@link org.sonar.plugins.java.api.tree.BaseTreeVisitor} method not calling super.
+   */
+  protected void skipChildren(Tree tree) {
+    skippedTree = tree;
+  }
+
+  /**
+   * Tree whose children are currently skipped by this visitor, if any.
+   */
+  @CheckForNull
+  public final Tree skippedTree() {
+    return skippedTree;
+  }
+
+  public final void resumeVisit() {
+    skippedTree = null;
+  }
+
   public void visitToken(SyntaxToken syntaxToken) {
     //default behaviour is to do nothing
   }
@@ -83,6 +106,7 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
     }
     visitToken = isVisitingTokens();
     visitTrivia = isVisitingTrivia();
+    skippedTree = null;
     visit(tree);
   }
 
@@ -102,7 +126,11 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
     } else if (isSubscribed) {
       visitNode(tree);
     }
-    visitChildren(tree);
+    if (skippedTree == tree) {
+      skippedTree = null;
+    } else {
+      visitChildren(tree);
+    }
     if (!shouldVisitSyntaxToken && isSubscribed) {
       leaveNode(tree);
     }
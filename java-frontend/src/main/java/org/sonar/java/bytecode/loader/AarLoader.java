@@ -31,6 +31,7 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -93,6 +94,17 @@ public class AarLoader implements Loader {
     return new byte[0];
   }
 
+  /**
+   * {@inheritDoc}
+   * <strong>Only class resources (bytecode .class files) are listed by this method.</strong>
+   */
+  @Override
+  public void forEachResourceName(Consumer<String> consumer) {
+    if (classesLoader != null) {
+      classesLoader.forEachResourceName(consumer);
+    }
+  }
+
   @Override
   public void close() {
     try {
@@ -0,0 +1,138 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.loader;
+
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.Shorts;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * {@link AnnotationNode} stores arrays of primitive values as lists, which are replayed element by element, while
+ * {@link org.objectweb.asm.ClassReader} visits them as a single array value. This class converts such lists back to arrays,
+ * so that visiting a {@link ClassNode} produces the same events as reading the class file.
+ */
+final class AnnotationValues {
+
+  private AnnotationValues() {
+    // utility class
+  }
+
+  static void restorePrimitiveArrays(ClassNode classNode) {
+    restore(classNode.visibleAnnotations);
+    restore(classNode.invisibleAnnotations);
+    restore(classNode.visibleTypeAnnotations);
+    restore(classNode.invisibleTypeAnnotations);
+    for (FieldNode field : classNode.fields) {
+      restore(field.visibleAnnotations);
+      restore(field.invisibleAnnotations);
+      restore(field.visibleTypeAnnotations);
+      restore(field.invisibleTypeAnnotations);
+    }
+    for (MethodNode method : classNode.methods) {
+      restore(method.visibleAnnotations);
+      restore(method.invisibleAnnotations);
+      restore(method.visibleTypeAnnotations);
+      restore(method.invisibleTypeAnnotations);
+      restoreParameters(method.visibleParameterAnnotations);
+      restoreParameters(method.invisibleParameterAnnotations);
+      if (method.annotationDefault != null) {
+        method.annotationDefault = restore(method.annotationDefault);
+      }
+    }
+  }
+
+  private static void restoreParameters(@Nullable List<? extends AnnotationNode>[] parameterAnnotations) {
+    if (parameterAnnotations != null) {
+      for (List<? extends AnnotationNode> annotations : parameterAnnotations) {
+        restore(annotations);
+      }
+    }
+  }
+
+  private static void restore(@Nullable List<? extends AnnotationNode> annotations) {
+    if (annotations != null) {
+      annotations.forEach(AnnotationValues::restore);
+    }
+  }
+
+  private static void restore(AnnotationNode annotation) {
+    if (annotation.values != null) {
+      // values alternate names and values
+      for (int i = 1; i < annotation.values.size(); i += 2) {
+        annotation.values.set(i, restore(annotation.values.get(i)));
+      }
+    }
+  }
+
+  private static Object restore(Object value) {
+    if (value instanceof AnnotationNode) {
+      restore((AnnotationNode) value);
+    } else if (value instanceof List) {
+      List<?> values = (List<?>) value;
+      if (values.isEmpty()) {
+        return value;
+      }
+      Object primitiveArray = toPrimitiveArray(values);
+      if (primitiveArray != null) {
+        return primitiveArray;
+      }
+      values.stream().filter(AnnotationNode.class::isInstance).forEach(a -> restore((AnnotationNode) a));
+    }
+    return value;
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static Object toPrimitiveArray(List<?> values) {
+    Class<?> elementType = values.get(0).getClass();
+    if (values.stream().anyMatch(v -> v.getClass() != elementType)) {
+      return null;
+    }
+    if (elementType == Byte.class) {
+      return Bytes.toArray((List<Byte>) values);
+    } else if (elementType == Boolean.class) {
+      return Booleans.toArray((List<Boolean>) values);
+    } else if (elementType == Short.class) {
+      return Shorts.toArray((List<Short>) values);
+    } else if (elementType == Character.class) {
+      return Chars.toArray((List<Character>) values);
+    } else if (elementType == Integer.class) {
+      return Ints.toArray((List<Integer>) values);
+    } else if (elementType == Long.class) {
+      return Longs.toArray((List<Long>) values);
+    } else if (elementType == Float.class) {
+      return Floats.toArray((List<Float>) values);
+    } else if (elementType == Double.class) {
+      return Doubles.toArray((List<Double>) values);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.loader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Persisted structures of the classes of a jar (or of the JDK), written as class files stripped of code and debug information.
+ * A snapshot file is specific to one version of the archive it describes: its name is derived from the path, size and
+ * modification date of the archive. Classes read from the archive are added to the snapshot, which is written back on save.
+ */
+class ClassStructureSnapshot {
+
+  private static final Logger LOG = Loggers.get(ClassStructureSnapshot.class);
+  private static final int FORMAT_VERSION = 1;
+
+  private final File file;
+  private final Map<String, byte[]> strippedClasses = new ConcurrentHashMap<>();
+  private volatile boolean modified = false;
+
+  ClassStructureSnapshot(File file) {
+    this.file = file;
+    if (file.isFile()) {
+      load();
+    }
+  }
+
+  private void load() {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        return;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String name = in.readUTF();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        strippedClasses.put(name, bytes);
+      }
+    } catch (IOException e) {
+      LOG.debug("Unable to read class structure snapshot '{}': {}", file, e.getMessage());
+      strippedClasses.clear();
+    }
+  }
+
+  /**
+   * @param bytecodeName name of the class in internal form (e.g. org/acme/Foo)
+   * @return stripped class file, or null if the class is not part of the snapshot
+   */
+  @CheckForNull
+  byte[] get(String bytecodeName) {
+    return strippedClasses.get(bytecodeName);
+  }
+
+  void add(String bytecodeName, ClassNode classStructure) {
+    ClassWriter classWriter = new ClassWriter(0);
+    classStructure.accept(classWriter);
+    strippedClasses.put(bytecodeName, classWriter.toByteArray());
+    modified = true;
+  }
+
+  int size() {
+    return strippedClasses.size();
+  }
+
+  void save() {
+    if (!modified) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      // written in a temporary file first, as snapshots can be shared by concurrent analyses
+      Path tempFile = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+      Map<String, byte[]> classesToWrite = new HashMap<>(strippedClasses);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(classesToWrite.size());
+        for (Map.Entry<String, byte[]> entry : classesToWrite.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeInt(entry.getValue().length);
+          out.write(entry.getValue());
+        }
+      }
+      Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      modified = false;
+    } catch (IOException e) {
+      LOG.warn("Unable to write class structure snapshot '{}': {}", file, e.getMessage());
+    }
+  }
+}
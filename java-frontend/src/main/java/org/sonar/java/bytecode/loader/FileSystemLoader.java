@@ -23,10 +23,13 @@ import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 class FileSystemLoader implements Loader {
 
@@ -72,6 +75,20 @@ class FileSystemLoader implements Loader {
     }
   }
 
+  @Override
+  public void forEachResourceName(Consumer<String> consumer) {
+    if (baseDirPath == null) {
+      throw new IllegalStateException("Loader closed");
+    }
+    try (Stream<Path> files = Files.walk(baseDirPath)) {
+      files.filter(Files::isRegularFile)
+        .map(filePath -> baseDirPath.relativize(filePath).toString().replace(File.separatorChar, '/'))
+        .forEach(consumer);
+    } catch (IOException | UncheckedIOException e) {
+      throw new IllegalStateException("Unable to list files of " + baseDirPath, e);
+    }
+  }
+
   @Override
   public void close() {
     baseDirPath = null;
@@ -19,9 +19,9 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.io.ByteStreams;
 import javax.annotation.Nullable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,6 +29,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.util.function.Consumer;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -74,13 +75,14 @@ class JarLoader implements Loader {
       }
 
       try (InputStream is = jarFile.getInputStream(entry)) {
-        byte[] buffer = new byte[8192];
-        ByteArrayOutputStream array = new ByteArrayOutputStream((int) entry.getSize());
-        int i;
-        while ((i = is.read(buffer)) >= 0) {
-          array.write(buffer, 0, i);
+        long size = entry.getSize();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+          return ByteStreams.toByteArray(is);
         }
-        return array.toByteArray();
+        // size is known from the central directory: read directly into the returned array, without intermediate buffers
+        byte[] bytes = new byte[(int) size];
+        ByteStreams.readFully(is, bytes);
+        return bytes;
       }
     } catch (IOException e) {
       // TODO Godin: not sure that we should silently ignore exception here,
@@ -89,6 +91,11 @@ class JarLoader implements Loader {
     }
   }
 
+  @Override
+  public void forEachResourceName(Consumer<String> consumer) {
+    jarFile.stream().map(ZipEntry::getName).forEach(consumer);
+  }
+
   @Override
   public void close() {
     try {
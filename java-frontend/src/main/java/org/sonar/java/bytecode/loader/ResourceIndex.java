@@ -0,0 +1,86 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.loader;
+
+/**
+ * Index of resource names to the position of the first loader, in classpath order, providing them.
+ * Implemented as an open-addressing hash table with linear probing, to avoid allocating an entry object per resource.
+ */
+class ResourceIndex {
+
+  static final int NOT_FOUND = -1;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private String[] names = new String[INITIAL_CAPACITY];
+  private int[] loaderIndexes = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /**
+   * Registers the loader for the given resource name, unless a loader has already been registered for it.
+   */
+  void putIfAbsent(String name, int loaderIndex) {
+    if (4 * (size + 1) > 3 * names.length) {
+      grow();
+    }
+    int slot = slot(names, name);
+    if (names[slot] == null) {
+      names[slot] = name;
+      loaderIndexes[slot] = loaderIndex;
+      size++;
+    }
+  }
+
+  /**
+   * @return position of the loader providing the resource, or {@link #NOT_FOUND}
+   */
+  int get(String name) {
+    int slot = slot(names, name);
+    return names[slot] == null ? NOT_FOUND : loaderIndexes[slot];
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void grow() {
+    String[] oldNames = names;
+    int[] oldLoaderIndexes = loaderIndexes;
+    names = new String[oldNames.length * 2];
+    loaderIndexes = new int[oldNames.length * 2];
+    for (int i = 0; i < oldNames.length; i++) {
+      String name = oldNames[i];
+      if (name != null) {
+        int slot = slot(names, name);
+        names[slot] = name;
+        loaderIndexes[slot] = oldLoaderIndexes[i];
+      }
+    }
+  }
+
+  private static int slot(String[] table, String name) {
+    int mask = table.length - 1;
+    int hash = name.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (table[slot] != null && !table[slot].equals(name)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
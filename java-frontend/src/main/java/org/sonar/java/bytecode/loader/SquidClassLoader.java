@@ -19,29 +19,34 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Iterators;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.ArrayUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.resolve.BytecodeCompleter;
 import org.sonar.java.resolve.Convert;
 
 /**
@@ -50,9 +55,17 @@ import org.sonar.java.resolve.Convert;
 public class SquidClassLoader extends ClassLoader implements Closeable {
 
   private static final Logger LOG = Loggers.get(SquidClassLoader.class);
+  private static final int MAX_CACHED_CLASS_STRUCTURES = 10_000;
 
   private final List<Loader> loaders;
-  private final LoadingCache<String, Optional<Loader>> loaderCache;
+  private final List<File> loaderFiles;
+  private final ResourceIndex resourceIndex;
+  @Nullable
+  private File snapshotDirectory;
+  private final Map<Integer, ClassStructureSnapshot> snapshots = new ConcurrentHashMap<>();
+  private final Cache<String, Optional<ClassNode>> classStructures = CacheBuilder.newBuilder()
+    .maximumSize(MAX_CACHED_CLASS_STRUCTURES)
+    .build();
 
   /**
    * @param files ordered list of files and directories from which to load classes and resources
@@ -60,31 +73,43 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   public SquidClassLoader(List<File> files) {
     super(computeParent());
     loaders = new ArrayList<>();
+    loaderFiles = new ArrayList<>();
+    resourceIndex = new ResourceIndex();
     for (File file : files) {
       if (file.exists()) {
+        Loader loader = null;
         try {
-          if (file.isDirectory()) {
-            loaders.add(new FileSystemLoader(file));
-          } else if (file.getName().endsWith(".jar")) {
-            loaders.add(new JarLoader(file));
-          } else if (file.getName().endsWith(".aar")) {
-            loaders.add(new AarLoader(file));
+          loader = createLoader(file);
+          if (loader != null) {
+            // resources are indexed only once all of them have been listed, so that a loader failing to list them leaves no entry
+            List<String> resourceNames = new ArrayList<>();
+            loader.forEachResourceName(resourceNames::add);
+            int loaderIndex = loaders.size();
+            resourceNames.forEach(name -> resourceIndex.putIfAbsent(name, loaderIndex));
+            loaders.add(loader);
+            loaderFiles.add(file);
           }
         } catch (IllegalStateException e) {
+          if (loader != null) {
+            loader.close();
+          }
           LOG.warn("Unable to load classes from '{}'", file.getPath());
           LOG.debug("{}: {}", e.getMessage(), e.getCause().getMessage());
         }
       }
     }
+  }
 
-    loaderCache = CacheBuilder.newBuilder()
-      .maximumSize(5000)
-      .build(new CacheLoader<String, Optional<Loader>>() {
-        @Override
-        public Optional<Loader> load(String key) {
-          return findLoaderWithResource(key);
-        }
-      });
+  @CheckForNull
+  private static Loader createLoader(File file) {
+    if (file.isDirectory()) {
+      return new FileSystemLoader(file);
+    } else if (file.getName().endsWith(".jar")) {
+      return new JarLoader(file);
+    } else if (file.getName().endsWith(".aar")) {
+      return new AarLoader(file);
+    }
+    return null;
   }
 
   private static ClassLoader computeParent() {
@@ -98,7 +123,8 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   @Override
   protected Class findClass(String name) throws ClassNotFoundException {
     String resourceName = name.replace('.', '/') + ".class";
-    for (Loader loader : loaders) {
+    Loader loader = loaderFor(resourceName);
+    if (loader != null) {
       byte[] classBytes = loader.loadBytes(resourceName);
       if (ArrayUtils.isNotEmpty(classBytes)) {
         // TODO Godin: definePackage ?
@@ -110,21 +136,17 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
 
   @Override
   public URL findResource(String name) {
-    try {
-      return loaderCache.get(name).map(loader -> loader.findResource(name)).orElse(null);
-    } catch (ExecutionException | UncheckedExecutionException e) {
-      throw new IllegalStateException(e.getCause());
-    }
+    Loader loader = loaderFor(name);
+    return loader == null ? null : loader.findResource(name);
   }
 
-  private Optional<Loader> findLoaderWithResource(String resourceName) {
-    for (Loader loader : loaders) {
-      URL url = loader.findResource(resourceName);
-      if (url != null) {
-        return Optional.of(loader);
-      }
-    }
-    return Optional.empty();
+  /**
+   * @return the first loader, in classpath order, providing the resource, or null if no loader provides it
+   */
+  @CheckForNull
+  private Loader loaderFor(String resourceName) {
+    int loaderIndex = resourceIndex.get(resourceName);
+    return loaderIndex == ResourceIndex.NOT_FOUND ? null : loaders.get(loaderIndex);
   }
 
   @Override
@@ -148,7 +170,16 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
    */
   @CheckForNull
   public byte[] getBytesForClass(String className) {
-    try (InputStream is = getResourceAsStream(Convert.bytecodeName(className) + ".class")) {
+    String resourceName = Convert.bytecodeName(className) + ".class";
+    Loader loader = loaderFor(resourceName);
+    if (loader != null) {
+      // read bytes directly from the loader, without going through an URL connection and an intermediate stream buffer
+      byte[] classBytes = loader.loadBytes(resourceName);
+      if (ArrayUtils.isNotEmpty(classBytes)) {
+        return classBytes;
+      }
+    }
+    try (InputStream is = getResourceAsStream(resourceName)) {
       if (is == null) {
         return null;
       }
@@ -158,6 +189,87 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
     }
   }
 
+  /**
+   * @param className canonical name of the class (e.g. org.acme.Foo )
+   * @return true if the class is loaded from a directory of the classpath, such as the output directory of the project
+   */
+  public boolean isLoadedFromDirectory(String className) {
+    return loaderFor(Convert.bytecodeName(className) + ".class") instanceof FileSystemLoader;
+  }
+
+  /**
+   * Read the structure of the class with name passed as an argument: its header, annotations, fields and method signatures,
+   * without code, frames and debug information. Structures are parsed once and then shared by all the files of the analysis,
+   * so returned node must not be modified.
+   *
+   * @param className canonical name of the class (e.g. org.acme.Foo )
+   * @return structure of the class or null if class is not found
+   */
+  @CheckForNull
+  public ClassNode getClassStructure(String className) {
+    String bytecodeName = Convert.bytecodeName(className);
+    Optional<ClassNode> classStructure = classStructures.getIfPresent(bytecodeName);
+    if (classStructure == null) {
+      classStructure = Optional.ofNullable(readClassStructure(bytecodeName));
+      classStructures.put(bytecodeName, classStructure);
+    }
+    return classStructure.orElse(null);
+  }
+
+  @CheckForNull
+  private ClassNode readClassStructure(String bytecodeName) {
+    ClassStructureSnapshot snapshot = snapshotFor(bytecodeName + ".class");
+    byte[] strippedBytes = snapshot == null ? null : snapshot.get(bytecodeName);
+    if (strippedBytes != null) {
+      return parseClassStructure(strippedBytes);
+    }
+    byte[] bytes = getBytesForClass(bytecodeName);
+    if (bytes == null) {
+      return null;
+    }
+    ClassNode classNode = parseClassStructure(bytes);
+    if (snapshot != null) {
+      snapshot.add(bytecodeName, classNode);
+    }
+    return classNode;
+  }
+
+  private static ClassNode parseClassStructure(byte[] bytes) {
+    ClassNode classNode = new ClassNode(BytecodeCompleter.ASM_API_VERSION);
+    new ClassReader(bytes).accept(classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+    AnnotationValues.restorePrimitiveArrays(classNode);
+    return classNode;
+  }
+
+  /**
+   * Persist structures of classes read from jars and from the JDK in the given directory, and reuse them in later analyses
+   * instead of reading the archives.
+   */
+  public void useClassStructureSnapshots(File directory) {
+    this.snapshotDirectory = directory;
+  }
+
+  @CheckForNull
+  private ClassStructureSnapshot snapshotFor(String resourceName) {
+    if (snapshotDirectory == null) {
+      return null;
+    }
+    int loaderIndex = resourceIndex.get(resourceName);
+    String snapshotName;
+    if (loaderIndex == ResourceIndex.NOT_FOUND) {
+      // not on the classpath: provided by the JDK running the analysis, if provided at all
+      snapshotName = "jdk-" + Hashing.sha256().hashString(System.getProperty("java.home") + System.getProperty("java.version"), StandardCharsets.UTF_8);
+    } else {
+      File file = loaderFiles.get(loaderIndex);
+      if (file.isDirectory()) {
+        // content of directories is expected to change between analyses
+        return null;
+      }
+      snapshotName = file.getName() + "-" + Hashing.sha256().hashString(file.getAbsolutePath() + file.length() + file.lastModified(), StandardCharsets.UTF_8);
+    }
+    return snapshots.computeIfAbsent(loaderIndex, i -> new ClassStructureSnapshot(new File(snapshotDirectory, snapshotName + ".snapshot")));
+  }
+
   @Override
   public URL getResource(String name) {
     Objects.requireNonNull(name);
@@ -176,6 +288,8 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
    */
   @Override
   public void close() {
+    snapshots.values().forEach(ClassStructureSnapshot::save);
+    snapshots.clear();
     for (Loader loader : loaders) {
       loader.close();
     }
@@ -122,6 +122,13 @@ public class CFG implements ControlFlowGraph {
   private String pendingLabel = null;
   private Map<String, Block> labelsBreakTarget = new HashMap<>();
   private Map<String, Block> labelsContinueTarget = new HashMap<>();
+  // liveness analyses of this CFG, computed once for all the consumers of the CFG of a method (see MethodTree#cfg())
+  @Nullable
+  LiveVariables liveVariables;
+  @Nullable
+  LiveVariables liveVariablesWithFields;
+  @Nullable
+  private FlatCFG flat;
 
   private CFG(List<? extends Tree> trees, Symbol.MethodSymbol symbol, boolean ignoreBreakAndContinue) {
     methodSymbol = symbol;
@@ -160,6 +167,16 @@ public class CFG implements ControlFlowGraph {
     return blocks;
   }
 
+  /**
+   * Index-based view of the structure of this CFG, computed on first call.
+   */
+  public FlatCFG flat() {
+    if (flat == null) {
+      flat = new FlatCFG(this);
+    }
+    return flat;
+  }
+
   public interface IBlock<T> {
     int id();
     List<T> elements();
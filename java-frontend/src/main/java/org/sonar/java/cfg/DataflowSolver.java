@@ -0,0 +1,196 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.cfg;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Iterative solver of gen/kill dataflow problems over the blocks of a {@link CFG}, such as liveness of variables, reaching definitions
+ * or available expressions.
+ * Facts are numbered from 0 by the analysis and sets of facts are stored as bitsets ({@code long[]}), blocks are identified by
+ * their id and traversed through the {@link FlatCFG} of the CFG.
+ * Blocks are taken from a worklist ordered by reverse postorder in the direction of the analysis, so that a block is usually
+ * processed once the blocks it depends on are.
+ */
+public class DataflowSolver {
+
+  public enum Direction {
+    FORWARD, BACKWARD
+  }
+
+  public enum Meet {
+    UNION, INTERSECTION
+  }
+
+  private final FlatCFG flat;
+  private final int factCount;
+  private final int words;
+  private final long[][] gen;
+  private final long[][] kill;
+  private final long[][] in;
+  private final long[][] out;
+
+  /**
+   * @param cfg the CFG to analyze
+   * @param factCount number of facts of the analysis
+   */
+  public DataflowSolver(CFG cfg, int factCount) {
+    this.flat = cfg.flat();
+    this.factCount = factCount;
+    this.words = (factCount + 63) >>> 6;
+    int blockCount = flat.blockCount();
+    gen = new long[blockCount][words];
+    kill = new long[blockCount][words];
+    in = new long[blockCount][];
+    out = new long[blockCount][];
+  }
+
+  public void gen(CFG.Block block, int fact) {
+    gen[block.id()][fact >>> 6] |= 1L << fact;
+  }
+
+  public void kill(CFG.Block block, int fact) {
+    kill[block.id()][fact >>> 6] |= 1L << fact;
+  }
+
+  /**
+   * Computes the fixpoint of {@code out = gen ∪ (in - kill)} for forward problems, and {@code in = gen ∪ (out - kill)} for backward
+   * problems. The input of a block is the meet of the outputs of its predecessors (of its successors for backward problems), it is
+   * empty for blocks without predecessors (without successors for backward problems).
+   */
+  public void solve(Direction direction, Meet meet) {
+    int blockCount = flat.blockCount();
+    // blocks whose output is the input of a block, and blocks reading the output of a block
+    int[] sourceOffsets = direction == Direction.FORWARD ? flat.predecessorOffsets : flat.successorOffsets;
+    int[] sources = direction == Direction.FORWARD ? flat.predecessorTargets : flat.successorTargets;
+    int[] targetOffsets = direction == Direction.FORWARD ? flat.successorOffsets : flat.predecessorOffsets;
+    int[] targets = direction == Direction.FORWARD ? flat.successorTargets : flat.predecessorTargets;
+    long[][] input = direction == Direction.FORWARD ? in : out;
+    long[][] output = direction == Direction.FORWARD ? out : in;
+    for (int b = 0; b < blockCount; b++) {
+      input[b] = new long[words];
+      output[b] = new long[words];
+      if (meet == Meet.INTERSECTION) {
+        // top of the lattice: meeting with the output of a block not processed yet does not lose facts
+        fillTop(output[b]);
+      }
+    }
+    int[] rank = reversePostorderRanks(targetOffsets, targets, IntStream.range(0, blockCount).filter(b -> sourceOffsets[b] == sourceOffsets[b + 1]).toArray());
+    PriorityQueue<Integer> workList = new PriorityQueue<>(Math.max(1, blockCount), (b1, b2) -> Integer.compare(rank[b1], rank[b2]));
+    boolean[] queued = new boolean[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      workList.add(b);
+      queued[b] = true;
+    }
+    long[] newOutput = new long[words];
+    while (!workList.isEmpty()) {
+      int b = workList.poll();
+      queued[b] = false;
+      long[] blockInput = input[b];
+      meet(meet, sources, sourceOffsets[b], sourceOffsets[b + 1], output, blockInput);
+      long[] blockGen = gen[b];
+      long[] blockKill = kill[b];
+      for (int w = 0; w < words; w++) {
+        newOutput[w] = blockGen[w] | (blockInput[w] & ~blockKill[w]);
+      }
+      if (Arrays.equals(newOutput, output[b])) {
+        continue;
+      }
+      System.arraycopy(newOutput, 0, output[b], 0, words);
+      for (int t = targetOffsets[b]; t < targetOffsets[b + 1]; t++) {
+        int target = targets[t];
+        if (!queued[target]) {
+          workList.add(target);
+          queued[target] = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Facts holding at the entry of the block, once solved.
+   */
+  public IntStream in(CFG.Block block) {
+    return BitSet.valueOf(in[block.id()]).stream();
+  }
+
+  /**
+   * Facts holding at the exit of the block, once solved.
+   */
+  public IntStream out(CFG.Block block) {
+    return BitSet.valueOf(out[block.id()]).stream();
+  }
+
+  /**
+   * Sets all the facts of the analysis but not the bits of the last word beyond them, as blocks of dead cycles keep this value once
+   * solved.
+   */
+  private void fillTop(long[] facts) {
+    Arrays.fill(facts, -1L);
+    if ((factCount & 63) != 0) {
+      facts[words - 1] = (1L << factCount) - 1;
+    }
+  }
+
+  private static void meet(Meet meet, int[] sources, int from, int to, long[][] output, long[] result) {
+    if (from == to) {
+      Arrays.fill(result, 0L);
+      return;
+    }
+    System.arraycopy(output[sources[from]], 0, result, 0, result.length);
+    for (int i = from + 1; i < to; i++) {
+      long[] sourceOutput = output[sources[i]];
+      for (int w = 0; w < result.length; w++) {
+        result[w] = meet == Meet.UNION ? (result[w] | sourceOutput[w]) : (result[w] & sourceOutput[w]);
+      }
+    }
+  }
+
+  /**
+   * Ranks blocks by reverse postorder of a depth-first traversal following the given edges from the given roots. Blocks which are
+   * not reached from the roots (cycles of dead code) are ranked last.
+   */
+  private static int[] reversePostorderRanks(int[] offsets, int[] targets, int[] roots) {
+    int blockCount = offsets.length - 1;
+    boolean[] visited = new boolean[blockCount];
+    int[] postorder = new int[blockCount];
+    int[] stack = new int[blockCount];
+    int[] nextEdge = new int[blockCount];
+    int size = 0;
+    for (int root : roots) {
+      size = FlatCFG.depthFirst(offsets, targets, root, visited, stack, nextEdge, postorder, size);
+    }
+    int reached = size;
+    for (int b = 0; b < blockCount; b++) {
+      size = FlatCFG.depthFirst(offsets, targets, b, visited, stack, nextEdge, postorder, size);
+    }
+    int[] rank = new int[blockCount];
+    for (int i = 0; i < reached; i++) {
+      rank[postorder[i]] = reached - 1 - i;
+    }
+    for (int i = reached; i < size; i++) {
+      rank[postorder[i]] = reached + size - 1 - i;
+    }
+    return rank;
+  }
+}
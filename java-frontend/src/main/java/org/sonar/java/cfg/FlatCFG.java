@@ -0,0 +1,246 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.cfg;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Index-based view of the structure of a {@link CFG}, for traversals which do not need to chase block references: blocks are
+ * numbered by their id, and their successors (including the blocks reached when an exception is raised) and predecessors are stored in
+ * compressed sparse row arrays. The reverse postorder of blocks reachable from the entry block is precomputed, the dominator tree
+ * is computed on first use.
+ * Obtained with {@link CFG#flat()}, {@link CFG.Block} instances remain the reference for the content of blocks.
+ */
+public final class FlatCFG {
+
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final List<CFG.Block> blocks;
+  private final int entry;
+  // successors of block b are successorTargets[successorOffsets[b]] to successorTargets[successorOffsets[b + 1] - 1], same for predecessors
+  final int[] successorOffsets;
+  final int[] successorTargets;
+  final int[] predecessorOffsets;
+  final int[] predecessorTargets;
+  private final int[] reversePostorder;
+  private final int[] rank;
+  @Nullable
+  private int[] immediateDominators;
+
+  FlatCFG(CFG cfg) {
+    blocks = cfg.reversedBlocks();
+    entry = cfg.entryBlock().id();
+    int blockCount = blocks.size();
+    successorOffsets = new int[blockCount + 1];
+    predecessorOffsets = new int[blockCount + 1];
+    int[][] successors = new int[blockCount][];
+    for (CFG.Block block : blocks) {
+      Set<CFG.Block> blockSuccessors = new LinkedHashSet<>(block.successors());
+      blockSuccessors.addAll(block.exceptions());
+      successors[block.id()] = blockSuccessors.stream().mapToInt(CFG.Block::id).toArray();
+    }
+    for (int b = 0; b < blockCount; b++) {
+      successorOffsets[b + 1] = successorOffsets[b] + successors[b].length;
+      for (int successor : successors[b]) {
+        predecessorOffsets[successor + 1]++;
+      }
+    }
+    successorTargets = new int[successorOffsets[blockCount]];
+    for (int b = 0; b < blockCount; b++) {
+      System.arraycopy(successors[b], 0, successorTargets, successorOffsets[b], successors[b].length);
+      predecessorOffsets[b + 1] += predecessorOffsets[b];
+    }
+    predecessorTargets = new int[predecessorOffsets[blockCount]];
+    int[] filled = Arrays.copyOf(predecessorOffsets, blockCount);
+    for (int b = 0; b < blockCount; b++) {
+      for (int successor : successors[b]) {
+        predecessorTargets[filled[successor]++] = b;
+      }
+    }
+    reversePostorder = reversePostorder(successorOffsets, successorTargets, entry);
+    rank = new int[blockCount];
+    Arrays.fill(rank, UNREACHABLE);
+    for (int i = 0; i < reversePostorder.length; i++) {
+      rank[reversePostorder[i]] = i;
+    }
+  }
+
+  public int blockCount() {
+    return blocks.size();
+  }
+
+  public CFG.Block block(int id) {
+    return blocks.get(id);
+  }
+
+  public int entry() {
+    return entry;
+  }
+
+  public int successorCount(int block) {
+    return successorOffsets[block + 1] - successorOffsets[block];
+  }
+
+  public int successor(int block, int index) {
+    return successorTargets[successorOffsets[block] + index];
+  }
+
+  public int predecessorCount(int block) {
+    return predecessorOffsets[block + 1] - predecessorOffsets[block];
+  }
+
+  public int predecessor(int block, int index) {
+    return predecessorTargets[predecessorOffsets[block] + index];
+  }
+
+  /**
+   * Ids of the blocks reachable from the entry block, in reverse postorder: a block comes before its successors, except along back edges.
+   */
+  public int[] reversePostorder() {
+    return reversePostorder.clone();
+  }
+
+  /**
+   * Position of the block in the reverse postorder, {@link #UNREACHABLE} when the block is not reachable from the entry block.
+   */
+  public int reversePostorderRank(int block) {
+    return rank[block];
+  }
+
+  /**
+   * Immediate dominator of the block, -1 for the entry block and the blocks which are not reachable from it.
+   */
+  public int immediateDominator(int block) {
+    return immediateDominators()[block];
+  }
+
+  public boolean dominates(int dominator, int block) {
+    if (rank[block] == UNREACHABLE) {
+      return false;
+    }
+    int current = block;
+    while (current != -1) {
+      if (current == dominator) {
+        return true;
+      }
+      current = immediateDominators()[current];
+    }
+    return false;
+  }
+
+  /**
+   * Dominators computed as described in "A Simple, Fast Dominance Algorithm" (Cooper, Harvey, Kennedy): iterations over the reverse
+   * postorder intersecting the dominators of the processed predecessors, until a fixpoint is reached.
+   */
+  private int[] immediateDominators() {
+    if (immediateDominators != null) {
+      return immediateDominators;
+    }
+    int[] idom = new int[blocks.size()];
+    Arrays.fill(idom, -1);
+    idom[entry] = entry;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 1; i < reversePostorder.length; i++) {
+        int block = reversePostorder[i];
+        int newIdom = -1;
+        for (int p = predecessorOffsets[block]; p < predecessorOffsets[block + 1]; p++) {
+          int predecessor = predecessorTargets[p];
+          if (idom[predecessor] != -1) {
+            newIdom = newIdom == -1 ? predecessor : intersect(idom, predecessor, newIdom);
+          }
+        }
+        if (idom[block] != newIdom) {
+          idom[block] = newIdom;
+          changed = true;
+        }
+      }
+    }
+    idom[entry] = -1;
+    immediateDominators = idom;
+    return idom;
+  }
+
+  private int intersect(int[] idom, int block1, int block2) {
+    int finger1 = block1;
+    int finger2 = block2;
+    while (finger1 != finger2) {
+      while (rank[finger1] > rank[finger2]) {
+        finger1 = idom[finger1];
+      }
+      while (rank[finger2] > rank[finger1]) {
+        finger2 = idom[finger2];
+      }
+    }
+    return finger1;
+  }
+
+  /**
+   * Reverse postorder of a depth-first traversal following the given edges from the given root.
+   */
+  static int[] reversePostorder(int[] offsets, int[] targets, int root) {
+    int blockCount = offsets.length - 1;
+    boolean[] visited = new boolean[blockCount];
+    int[] postorder = new int[blockCount];
+    int size = depthFirst(offsets, targets, root, visited, new int[blockCount], new int[blockCount], postorder, 0);
+    int[] result = new int[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = postorder[size - 1 - i];
+    }
+    return result;
+  }
+
+  /**
+   * Appends to the postorder the blocks not visited yet which are reachable from the start block, following the given edges.
+   */
+  static int depthFirst(int[] offsets, int[] targets, int start, boolean[] visited, int[] stack, int[] nextEdge, int[] postorder, int size) {
+    if (visited[start]) {
+      return size;
+    }
+    int postorderSize = size;
+    int top = 0;
+    stack[0] = start;
+    nextEdge[0] = offsets[start];
+    visited[start] = true;
+    while (top >= 0) {
+      int block = stack[top];
+      if (nextEdge[top] < offsets[block + 1]) {
+        int next = targets[nextEdge[top]];
+        nextEdge[top]++;
+        if (!visited[next]) {
+          visited[next] = true;
+          top++;
+          stack[top] = next;
+          nextEdge[top] = offsets[next];
+        }
+      } else {
+        postorder[postorderSize] = block;
+        postorderSize++;
+        top--;
+      }
+    }
+    return postorderSize;
+  }
+}
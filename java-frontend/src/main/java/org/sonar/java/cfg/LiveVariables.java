@@ -21,7 +21,6 @@ package org.sonar.java.cfg;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -37,12 +36,9 @@ import org.sonar.plugins.java.api.tree.VariableTree;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 public class LiveVariables {
@@ -66,66 +62,60 @@ public class LiveVariables {
   }
 
   /**
-   * Returns LiveVariables object with information concerning local variables and parameters
+   * Returns LiveVariables object with information concerning local variables and parameters.
+   * The analysis is computed once per CFG.
    */
   public static LiveVariables analyze(CFG cfg) {
-    return analyze(cfg, false);
+    if (cfg.liveVariables == null) {
+      cfg.liveVariables = analyze(cfg, false);
+    }
+    return cfg.liveVariables;
   }
 
   /**
-   * Returns LiveVariables object with information concerning local variables, parameters and fields
+   * Returns LiveVariables object with information concerning local variables, parameters and fields.
+   * The analysis is computed once per CFG.
    */
   public static LiveVariables analyzeWithFields(CFG cfg) {
-    return analyze(cfg, true);
+    if (cfg.liveVariablesWithFields == null) {
+      cfg.liveVariablesWithFields = analyze(cfg, true);
+    }
+    return cfg.liveVariablesWithFields;
   }
 
   private static LiveVariables analyze(CFG cfg, boolean includeFields) {
     LiveVariables liveVariables = new LiveVariables(cfg, includeFields);
-    // Generate kill/gen for each block in isolation
+    // Generate kill/gen for each block in isolation, numbering the symbols to solve the analysis on bitsets
     Map<CFG.Block, Set<Symbol>> kill = new HashMap<>();
     Map<CFG.Block, Set<Symbol>> gen = new HashMap<>();
+    Map<Symbol, Integer> symbolIds = new HashMap<>();
     for (CFG.Block block : liveVariables.cfg.reversedBlocks()) {
       Set<Symbol> blockKill = new HashSet<>();
       Set<Symbol> blockGen = new HashSet<>();
       liveVariables.processBlockElements(block, blockKill, blockGen);
       kill.put(block, blockKill);
       gen.put(block, blockGen);
+      blockKill.forEach(symbol -> symbolIds.computeIfAbsent(symbol, s -> symbolIds.size()));
+      blockGen.forEach(symbol -> symbolIds.computeIfAbsent(symbol, s -> symbolIds.size()));
+    }
+    DataflowSolver solver = new DataflowSolver(cfg, symbolIds.size());
+    kill.forEach((block, symbols) -> symbols.forEach(symbol -> solver.kill(block, symbolIds.get(symbol))));
+    gen.forEach((block, symbols) -> symbols.forEach(symbol -> solver.gen(block, symbolIds.get(symbol))));
+    solver.solve(DataflowSolver.Direction.BACKWARD, DataflowSolver.Meet.UNION);
+
+    Symbol[] symbols = new Symbol[symbolIds.size()];
+    symbolIds.forEach((symbol, id) -> symbols[id] = symbol);
+    for (CFG.Block block : liveVariables.cfg.reversedBlocks()) {
+      liveVariables.in.put(block, solver.in(block).mapToObj(id -> symbols[id]).collect(ImmutableSet.toImmutableSet()));
+      liveVariables.out.put(block, solver.out(block).mapToObj(id -> symbols[id]).collect(ImmutableSet.toImmutableSet()));
     }
-    liveVariables.analyzeCFG(liveVariables.in, kill, gen);
     // out of exit block are empty by definition.
     if (!liveVariables.out.get(liveVariables.cfg.reversedBlocks().get(0)).isEmpty()) {
       throw new IllegalStateException("Out of exit block should be empty");
     }
-
-    // Make things immutable.
-    for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.out.entrySet()) {
-      blockSetEntry.setValue(ImmutableSet.copyOf(blockSetEntry.getValue()));
-    }
-
     return liveVariables;
   }
 
-  private void analyzeCFG(Map<CFG.Block, Set<Symbol>> in, Map<CFG.Block, Set<Symbol>> kill, Map<CFG.Block, Set<Symbol>> gen) {
-    Deque<CFG.Block> workList = new LinkedList<>();
-    workList.addAll(cfg.reversedBlocks());
-    while (!workList.isEmpty()) {
-      CFG.Block block = workList.removeFirst();
-
-      Set<Symbol> blockOut = out.computeIfAbsent(block, k -> new HashSet<>());
-      block.successors().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      block.exceptions().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      // in = gen and (out - kill)
-      Set<Symbol> newIn = new HashSet<>(gen.get(block));
-      newIn.addAll(Sets.difference(blockOut, kill.get(block)));
-
-      if (newIn.equals(in.get(block))) {
-        continue;
-      }
-      in.put(block, newIn);
-      block.predecessors().forEach(workList::addLast);
-    }
-  }
-
   private void processBlockElements(CFG.Block block, Set<Symbol> blockKill, Set<Symbol> blockGen) {
     // process elements from bottom to top
     Set<Tree> assignmentLHS = new HashSet<>();
@@ -0,0 +1,398 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.collections;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * Hash array mapped trie.
+ *
+ * https://en.wikipedia.org/wiki/Hash_array_mapped_trie
+ *
+ * Each level of the trie consumes 5 bits of the hash code of keys, starting with the most significant ones, so that entries
+ * are visited in the ascending order of hash codes of keys, like for {@link AVLTree}. Keys and values are stored inline in
+ * the arrays of nodes, sub-nodes being stored with a null key: iterating does not allocate.
+ * Size and hash code of the map are maintained on each update, hash code being computed the same way as for {@link AVLTree}.
+ */
+final class HashTrieMap<K, V> implements PMap<K, V>, PSet<K> {
+
+  private static final int BITS_PER_LEVEL = 5;
+  private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+  /**
+   * Number of levels needed to consume the 32 bits of hash codes, keys having same hash code are then stored in a collision node.
+   */
+  private static final int LEVELS = 7;
+
+  @SuppressWarnings("rawtypes")
+  private static final HashTrieMap EMPTY = new HashTrieMap<>(BitmapNode.EMPTY, 0, 0);
+
+  private final Node root;
+  private final int size;
+  private final int hashCode;
+
+  private HashTrieMap(Node root, int size, int hashCode) {
+    this.root = root;
+    this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> HashTrieMap<K, V> create() {
+    return EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public HashTrieMap<K, V> add(K e) {
+    return put(e, (V) e);
+  }
+
+  @Override
+  public boolean contains(K k) {
+    return get(k) != null;
+  }
+
+  @Override
+  public HashTrieMap<K, V> put(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    int keyHash = key.hashCode();
+    V oldValue = get(key);
+    if (value.equals(oldValue)) {
+      return this;
+    }
+    Node newRoot = root.put(key, value, spread(keyHash), 0);
+    if (oldValue == null) {
+      return new HashTrieMap<>(newRoot, size + 1, hashCode + entryHashCode(keyHash, value));
+    }
+    return new HashTrieMap<>(newRoot, size, hashCode - entryHashCode(keyHash, oldValue) + entryHashCode(keyHash, value));
+  }
+
+  @Override
+  public HashTrieMap<K, V> remove(K key) {
+    Objects.requireNonNull(key);
+    V oldValue = get(key);
+    if (oldValue == null) {
+      return this;
+    }
+    if (size == 1) {
+      return create();
+    }
+    int keyHash = key.hashCode();
+    return new HashTrieMap<>(root.remove(key, spread(keyHash), 0), size - 1, hashCode - entryHashCode(keyHash, oldValue));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  @Override
+  public V get(K key) {
+    Objects.requireNonNull(key);
+    return (V) root.get(key, spread(key.hashCode()), 0);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void forEach(BiConsumer<K, V> action) {
+    root.forEach((BiConsumer<Object, Object>) action);
+  }
+
+  @Override
+  public void forEach(Consumer<K> action) {
+    forEach((k, v) -> action.accept(k));
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof HashTrieMap)) {
+      return false;
+    }
+    HashTrieMap<?, ?> other = (HashTrieMap<?, ?>) obj;
+    return size == other.size && hashCode == other.hashCode && root.allMatch((k, v) -> v.equals(other.root.get(k, spread(k.hashCode()), 0)));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    root.forEach((k, v) -> sb.append(' ').append(k).append("->").append(v));
+    return sb.toString();
+  }
+
+  private static int entryHashCode(int keyHash, Object value) {
+    // the key is multiplied by 31 to avoid K ^ V == 0 when K == V in case of set
+    return (31 * keyHash) ^ value.hashCode();
+  }
+
+  /**
+   * Flips the sign bit, so that the unsigned order of the result is the signed order of hash codes.
+   */
+  private static int spread(int hash) {
+    return hash ^ Integer.MIN_VALUE;
+  }
+
+  private static int index(int hash, int level) {
+    int shift = Integer.SIZE - BITS_PER_LEVEL * (level + 1);
+    return (shift >= 0 ? (hash >>> shift) : (hash << -shift)) & LEVEL_MASK;
+  }
+
+  private abstract static class Node {
+
+    @Nullable
+    abstract Object get(Object key, int hash, int level);
+
+    abstract Node put(Object key, Object value, int hash, int level);
+
+    /**
+     * Must only be called with keys contained in the node.
+     */
+    abstract Node remove(Object key, int hash, int level);
+
+    abstract void forEach(BiConsumer<Object, Object> action);
+
+    abstract boolean allMatch(BiPredicate<Object, Object> predicate);
+
+    /**
+     * @return the array of the single key and value of this node, null if the node has more entries or sub-nodes
+     */
+    @Nullable
+    abstract Object[] singleEntry();
+  }
+
+  private static final class BitmapNode extends Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    /**
+     * Pairs of key and value, or of null and sub-node, in the order of the bits of the bitmap.
+     */
+    private final Object[] slots;
+
+    private BitmapNode(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+
+    private int slot(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object get(Object key, int hash, int level) {
+      int bit = 1 << index(hash, level);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int slot = slot(bit);
+      Object slotKey = slots[slot];
+      if (slotKey == null) {
+        return ((Node) slots[slot + 1]).get(key, hash, level + 1);
+      }
+      return key.equals(slotKey) ? slots[slot + 1] : null;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int level) {
+      int bit = 1 << index(hash, level);
+      int slot = slot(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] newSlots = new Object[slots.length + 2];
+        System.arraycopy(slots, 0, newSlots, 0, slot);
+        newSlots[slot] = key;
+        newSlots[slot + 1] = value;
+        System.arraycopy(slots, slot, newSlots, slot + 2, slots.length - slot);
+        return new BitmapNode(bitmap | bit, newSlots);
+      }
+      Object slotKey = slots[slot];
+      Object slotValue = slots[slot + 1];
+      if (slotKey == null) {
+        return withSlot(slot, null, ((Node) slotValue).put(key, value, hash, level + 1));
+      }
+      if (key.equals(slotKey)) {
+        return withSlot(slot, key, value);
+      }
+      return withSlot(slot, null, merge(slotKey, slotValue, spread(slotKey.hashCode()), key, value, hash, level + 1));
+    }
+
+    @Override
+    Node remove(Object key, int hash, int level) {
+      int bit = 1 << index(hash, level);
+      int slot = slot(bit);
+      Object slotKey = slots[slot];
+      if (slotKey != null) {
+        if (bitmap == bit) {
+          return EMPTY;
+        }
+        Object[] newSlots = new Object[slots.length - 2];
+        System.arraycopy(slots, 0, newSlots, 0, slot);
+        System.arraycopy(slots, slot + 2, newSlots, slot, slots.length - slot - 2);
+        return new BitmapNode(bitmap ^ bit, newSlots);
+      }
+      Node newChild = ((Node) slots[slot + 1]).remove(key, hash, level + 1);
+      Object[] entry = newChild.singleEntry();
+      if (entry != null) {
+        // sub-nodes always hold at least two entries: the remaining entry is moved to this node
+        return withSlot(slot, entry[0], entry[1]);
+      }
+      return withSlot(slot, null, newChild);
+    }
+
+    private BitmapNode withSlot(int slot, @Nullable Object key, Object value) {
+      Object[] newSlots = slots.clone();
+      newSlots[slot] = key;
+      newSlots[slot + 1] = value;
+      return new BitmapNode(bitmap, newSlots);
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < slots.length; i += 2) {
+        if (slots[i] == null) {
+          ((Node) slots[i + 1]).forEach(action);
+        } else {
+          action.accept(slots[i], slots[i + 1]);
+        }
+      }
+    }
+
+    @Override
+    boolean allMatch(BiPredicate<Object, Object> predicate) {
+      for (int i = 0; i < slots.length; i += 2) {
+        boolean matches = slots[i] == null ? ((Node) slots[i + 1]).allMatch(predicate) : predicate.test(slots[i], slots[i + 1]);
+        if (!matches) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    Object[] singleEntry() {
+      return slots.length == 2 && slots[0] != null ? slots : null;
+    }
+  }
+
+  private static Node merge(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int level) {
+    if (level >= LEVELS) {
+      return new CollisionNode(new Object[] {key1, value1, key2, value2});
+    }
+    int index1 = index(hash1, level);
+    int index2 = index(hash2, level);
+    if (index1 == index2) {
+      return new BitmapNode(1 << index1, new Object[] {null, merge(key1, value1, hash1, key2, value2, hash2, level + 1)});
+    }
+    Object[] slots = index1 < index2 ? new Object[] {key1, value1, key2, value2} : new Object[] {key2, value2, key1, value1};
+    return new BitmapNode((1 << index1) | (1 << index2), slots);
+  }
+
+  /**
+   * Keys having the same hash code, in insertion order.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final Object[] entries;
+
+    private CollisionNode(Object[] entries) {
+      this.entries = entries;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < entries.length; i += 2) {
+        if (key.equals(entries[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object get(Object key, int hash, int level) {
+      int i = indexOf(key);
+      return i < 0 ? null : entries[i + 1];
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int level) {
+      int i = indexOf(key);
+      Object[] newEntries;
+      if (i < 0) {
+        newEntries = Arrays.copyOf(entries, entries.length + 2);
+        newEntries[entries.length] = key;
+        newEntries[entries.length + 1] = value;
+      } else {
+        newEntries = entries.clone();
+        newEntries[i + 1] = value;
+      }
+      return new CollisionNode(newEntries);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int level) {
+      int i = indexOf(key);
+      Object[] newEntries = new Object[entries.length - 2];
+      System.arraycopy(entries, 0, newEntries, 0, i);
+      System.arraycopy(entries, i + 2, newEntries, i, entries.length - i - 2);
+      return new CollisionNode(newEntries);
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < entries.length; i += 2) {
+        action.accept(entries[i], entries[i + 1]);
+      }
+    }
+
+    @Override
+    boolean allMatch(BiPredicate<Object, Object> predicate) {
+      for (int i = 0; i < entries.length; i += 2) {
+        if (!predicate.test(entries[i], entries[i + 1])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    Object[] singleEntry() {
+      return entries.length == 2 ? entries : null;
+    }
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonar.java.model;
 
 import org.sonar.java.resolve.JavaType;
+import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.resolve.Symbols;
 import org.sonar.plugins.java.api.semantic.Type;
 import org.sonar.sslr.grammar.GrammarRuleKey;
@@ -47,6 +48,9 @@ public abstract class AbstractTypedTree extends JavaTree {
   }
 
   public Type symbolType() {
+    if (type == null) {
+      SemanticModel.completeDeferredBody(this);
+    }
     return type;
   }
 
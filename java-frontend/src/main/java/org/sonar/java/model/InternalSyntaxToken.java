@@ -84,6 +84,13 @@ public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
     // FIXME do nothing at the moment
   }
 
+  /**
+   * @return index of the first character of the token in the source file
+   */
+  public int startIndex() {
+    return startIndex;
+  }
+
   @Override
   public int getLine() {
     return line;
@@ -33,6 +33,7 @@ import javax.annotation.Nullable;
 import org.sonar.java.ast.parser.TypeUnionListTreeImpl;
 import org.sonar.java.model.declaration.AnnotationTreeImpl;
 import org.sonar.java.model.expression.TypeArgumentListTreeImpl;
+import org.sonar.java.resolve.SemanticModel;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ArrayTypeTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
@@ -60,6 +61,9 @@ public abstract class JavaTree implements Tree {
   @Nullable
   private Tree parent;
 
+  // set while the tree belongs to a method body whose attribution is deferred, see SemanticModel#completeDeferredBody
+  private boolean inDeferredBody = false;
+
   protected GrammarRuleKey grammarRuleKey;
 
   private List<Tree> children;
@@ -121,6 +125,14 @@ public abstract class JavaTree implements Tree {
     this.parent = parent;
   }
 
+  public boolean isInDeferredBody() {
+    return inDeferredBody;
+  }
+
+  public void setInDeferredBody(boolean inDeferredBody) {
+    this.inDeferredBody = inDeferredBody;
+  }
+
   /**
    * Creates iterable for children of this node.
    * Note that iterable may contain {@code null} elements.
@@ -158,6 +170,8 @@ public abstract class JavaTree implements Tree {
     @Nullable
     private final ModuleDeclarationTree moduleDeclaration;
     private final SyntaxToken eofToken;
+    @Nullable
+    private SemanticModel semanticModelWithDeferredBodies;
 
     public CompilationUnitTreeImpl(@Nullable PackageDeclarationTree packageDeclaration, List<ImportClauseTree> imports, List<Tree> types,
       @Nullable ModuleDeclarationTree moduleDeclaration, SyntaxToken eofToken) {
@@ -179,6 +193,18 @@ public abstract class JavaTree implements Tree {
       return imports;
     }
 
+    /**
+     * @return semantic model of the file while some of its method bodies have not been attributed, null otherwise
+     */
+    @Nullable
+    public SemanticModel semanticModelWithDeferredBodies() {
+      return semanticModelWithDeferredBodies;
+    }
+
+    public void setSemanticModelWithDeferredBodies(@Nullable SemanticModel semanticModel) {
+      this.semanticModelWithDeferredBodies = semanticModel;
+    }
+
     @Override
     public List<Tree> types() {
       return types;
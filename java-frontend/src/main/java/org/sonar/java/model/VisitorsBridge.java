@@ -26,12 +26,12 @@ import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -41,6 +41,7 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.check.Rule;
 import org.sonar.java.AnalysisError;
+import org.sonar.java.AnalysisResultsCache;
 import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.IllegalRuleParameterException;
@@ -52,6 +53,8 @@ import org.sonar.java.bytecode.ClassLoaderBuilder;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.se.SymbolicExecutionMode;
+import org.sonar.java.se.ExplorationLimits;
+import org.sonar.java.se.ExplorationReport;
 import org.sonar.java.se.SymbolicExecutionVisitor;
 import org.sonar.java.se.xproc.BehaviorCache;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
@@ -60,6 +63,7 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public class VisitorsBridge {
@@ -71,12 +75,25 @@ public class VisitorsBridge {
   private List<JavaFileScanner> executableScanners;
   private final SonarComponents sonarComponents;
   private final boolean symbolicExecutionEnabled;
+  private final boolean crossFileEnabled;
+  private final List<File> projectClasspath;
   private SemanticModel semanticModel;
   protected InputFile currentFile;
   protected JavaVersion javaVersion;
   private Set<String> classesNotFound = new TreeSet<>();
   private final SquidClassLoader classLoader;
   private ScannerRunner scannerRunner;
+  @Nullable
+  private AnalysisResultsCache analysisResultsCache;
+  private List<JavaFileScanner> nonRuleScanners = Collections.emptyList();
+  private ScannerRunner nonRuleScannerRunner;
+  private int maxFileLines = 0;
+  private int maxFileSize = 0;
+  private boolean lazySemantic = false;
+  private ExplorationLimits explorationLimits = ExplorationLimits.DEFAULT;
+  @Nullable
+  private ExplorationReport explorationReport;
+  private final Set<String> degradedFiles = new TreeSet<>();
   private static Predicate<JavaFileScanner> isIssuableSubscriptionVisitor = s -> s instanceof IssuableSubscriptionVisitor;
 
   @VisibleForTesting
@@ -101,6 +118,8 @@ public class VisitorsBridge {
     this.sonarComponents = sonarComponents;
     this.classLoader = ClassLoaderBuilder.create(projectClasspath);
     this.symbolicExecutionEnabled = symbolicExecutionMode.isEnabled();
+    this.crossFileEnabled = symbolicExecutionMode.isCrossFileEnabled();
+    this.projectClasspath = projectClasspath;
     this.behaviorCache = new BehaviorCache(classLoader, symbolicExecutionMode.isCrossFileEnabled());
   }
 
@@ -109,6 +128,29 @@ public class VisitorsBridge {
     List<JavaFileScanner> scannersForJavaVersion = executableScanners(allScanners, javaVersion);
     this.executableScanners = scannersForJavaVersion.stream().filter(isIssuableSubscriptionVisitor.negate()).collect(Collectors.toList());
     this.scannerRunner = new ScannerRunner(scannersForJavaVersion);
+    if (sonarComponents != null) {
+      this.analysisResultsCache = sonarComponents.analysisResultsCache(scannersForJavaVersion, projectClasspath, classLoader, javaVersion, crossFileEnabled);
+      this.maxFileLines = sonarComponents.maxFileLines();
+      this.maxFileSize = sonarComponents.maxFileSize();
+      this.lazySemantic = sonarComponents.lazySemantic();
+      this.explorationLimits = sonarComponents.explorationLimits();
+      int explorationReportSize = sonarComponents.explorationReportSize();
+      this.explorationReport = explorationReportSize > 0 ? new ExplorationReport(explorationReportSize) : null;
+      File snapshotsDirectory = sonarComponents.classStructureSnapshotsDirectory();
+      if (snapshotsDirectory != null) {
+        classLoader.useClassStructureSnapshots(snapshotsDirectory);
+      }
+      behaviorCache.setMaxCachedYields(sonarComponents.maxCachedYields());
+      File behaviorStoreDirectory = sonarComponents.behaviorStoreDirectory();
+      if (behaviorStoreDirectory != null) {
+        behaviorCache.useBehaviorStore(behaviorStoreDirectory);
+      }
+    }
+    if (analysisResultsCache != null) {
+      List<JavaFileScanner> scannersWithoutRule = scannersForJavaVersion.stream().filter(s -> sonarComponents.getRuleKey(s) == null).collect(Collectors.toList());
+      this.nonRuleScanners = scannersWithoutRule.stream().filter(isIssuableSubscriptionVisitor.negate()).collect(Collectors.toList());
+      this.nonRuleScannerRunner = new ScannerRunner(scannersWithoutRule);
+    }
   }
 
   public void visitFile(@Nullable Tree parsedTree) {
@@ -117,9 +159,9 @@ public class VisitorsBridge {
     boolean fileParsed = parsedTree != null;
     if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
       tree = (CompilationUnitTree) parsedTree;
-      if (isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
+      if (isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/")) && !exceedsAnalysisBudget(tree)) {
         try {
-          semanticModel = SemanticModel.createFor(tree, classLoader);
+          semanticModel = SemanticModel.createFor(tree, classLoader, lazySemantic);
         } catch (Exception e) {
           LOG.error(String.format("Unable to create symbol table for : '%s'", currentFile), e);
           addAnalysisError(e, currentFile, AnalysisError.Kind.SEMANTIC_ERROR);
@@ -132,16 +174,37 @@ public class VisitorsBridge {
       }
     }
     JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, semanticModel, sonarComponents, fileParsed);
+    try {
+      if (fileParsed && analysisResultsCache != null && analysisResultsCache.replay(currentFile)) {
+        // issues of rules have been replayed from cache, only visitors computing measures, highlighting, etc. have to be executed
+        nonRuleScanners.forEach(scanner -> runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR));
+        nonRuleScannerRunner.run(javaFileScannerContext);
+      } else {
+        runAllScanners(javaFileScannerContext, tree);
+        if (analysisResultsCache != null) {
+          analysisResultsCache.endOfFile(semanticModel == null ? Collections.emptySet() : semanticModel.resolvedClasses());
+        }
+      }
+    } finally {
+      if (semanticModel != null) {
+        semanticModel.discardDeferredBodies();
+      }
+    }
+    if (semanticModel != null) {
+      classesNotFound.addAll(semanticModel.classesNotFound());
+    }
+  }
+
+  private void runAllScanners(JavaFileScannerContext javaFileScannerContext, CompilationUnitTree tree) {
     // Symbolic execution checks
-    if (symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
-      runScanner(javaFileScannerContext, new SymbolicExecutionVisitor(executableScanners, behaviorCache), AnalysisError.Kind.SE_ERROR);
+    if (symbolicExecutionEnabled && semanticModel != null) {
+      // symbolic execution explores every method
+      semanticModel.completeAllBodies();
+      runScanner(javaFileScannerContext, new SymbolicExecutionVisitor(executableScanners, behaviorCache, explorationLimits, explorationReport, analysisResultsCache), AnalysisError.Kind.SE_ERROR);
       behaviorCache.cleanup();
     }
     executableScanners.forEach(scanner -> runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR));
     scannerRunner.run(javaFileScannerContext);
-    if (semanticModel != null) {
-      classesNotFound.addAll(semanticModel.classesNotFound());
-    }
   }
 
   private void runScanner(JavaFileScannerContext javaFileScannerContext, JavaFileScanner scanner, AnalysisError.Kind kind) {
@@ -172,6 +235,9 @@ public class VisitorsBridge {
   }
 
   private void addAnalysisError(Exception e, InputFile inputFile, AnalysisError.Kind checkError) {
+    if (analysisResultsCache != null) {
+      analysisResultsCache.invalidateCurrentFile();
+    }
     if (sonarComponents != null) {
       sonarComponents.addAnalysisError(new AnalysisError(e, inputFile.toString(), checkError));
     }
@@ -198,6 +264,29 @@ public class VisitorsBridge {
       fileParsed);
   }
 
+  /**
+   * Files over the configured budgets (typically huge generated files) are analyzed without semantic, so that their analysis
+   * time remains predictable.
+   */
+  private boolean exceedsAnalysisBudget(CompilationUnitTree tree) {
+    InternalSyntaxToken eofToken = (InternalSyntaxToken) tree.eofToken();
+    if (eofToken == null) {
+      return false;
+    }
+    String exceededBudget = null;
+    if (maxFileLines > 0 && eofToken.line() > maxFileLines) {
+      exceededBudget = String.format("%d lines (%s=%d)", eofToken.line(), SonarComponents.MAX_FILE_LINES_KEY, maxFileLines);
+    } else if (maxFileSize > 0 && eofToken.startIndex() > maxFileSize) {
+      exceededBudget = String.format("%d characters (%s=%d)", eofToken.startIndex(), SonarComponents.MAX_FILE_SIZE_KEY, maxFileSize);
+    }
+    if (exceededBudget == null) {
+      return false;
+    }
+    LOG.warn("File '{}' exceeds analysis budget with {}: only rules not requiring semantic are executed", currentFile, exceededBudget);
+    degradedFiles.add(currentFile.toString());
+    return true;
+  }
+
   private boolean isNotJavaLangOrSerializable(String packageName) {
     String name = currentFile.filename();
     return !(inJavaLang(packageName) || isAnnotation(packageName, name) || isSerializable(packageName, name));
@@ -245,64 +334,116 @@ public class VisitorsBridge {
       }
       LOG.warn("Classes not found during the analysis : [{}{}]", classesNotFound.stream().limit(50).collect(Collectors.joining(", ")), message);
     }
+    if (!degradedFiles.isEmpty()) {
+      LOG.warn("{} file(s) analyzed without semantic because of analysis budgets: [{}]", degradedFiles.size(), String.join(", ", degradedFiles));
+    }
+    if (explorationReport != null) {
+      explorationReport.log();
+    }
     allScanners.stream()
       .filter(s -> s instanceof EndOfAnalysisCheck)
       .map(EndOfAnalysisCheck.class::cast)
       .forEach(EndOfAnalysisCheck::endOfAnalysis);
+    if (analysisResultsCache != null) {
+      analysisResultsCache.save();
+    }
+    if (symbolicExecutionEnabled) {
+      LOG.debug("Behaviors of library methods: {} hits, {} misses, {} evictions", behaviorCache.hits(), behaviorCache.misses(), behaviorCache.evictions());
+    }
+    behaviorCache.saveBehaviorStore();
     classLoader.close();
   }
 
   private static class ScannerRunner {
-    private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
+    private static final SubscriptionVisitor[] NO_VISITOR = new SubscriptionVisitor[0];
+    // visitors subscribed to each kind, indexed by ordinal of the kind
+    private final SubscriptionVisitor[][] checks;
+    private final SubscriptionVisitor[] triviaVisitors;
+    // tokens are leaves: when no visitor is subscribed to tokens or trivia, they are not visited at all
+    private final boolean visitTokens;
     private List<SubscriptionVisitor> subscriptionVisitors;
+    // number of visitors currently skipping the subtree they asked to skip: when all of them do, the subtree is not walked
+    private int skippingVisitors;
 
     ScannerRunner(List<JavaFileScanner> executableScanners) {
-      checks = new EnumMap<>(Tree.Kind.class);
       subscriptionVisitors = executableScanners.stream()
         .filter(isIssuableSubscriptionVisitor)
         .map(s -> (SubscriptionVisitor) s)
         .collect(Collectors.toList());
-      subscriptionVisitors.forEach(s -> s.nodesToVisit().forEach(k -> checks.computeIfAbsent(k, key -> new ArrayList<>()).add(s))
+      EnumMap<Tree.Kind, List<SubscriptionVisitor>> visitorsByKind = new EnumMap<>(Tree.Kind.class);
+      subscriptionVisitors.forEach(s -> s.nodesToVisit().forEach(k -> visitorsByKind.computeIfAbsent(k, key -> new ArrayList<>()).add(s))
       );
+      checks = new SubscriptionVisitor[Tree.Kind.values().length][];
+      Arrays.fill(checks, NO_VISITOR);
+      visitorsByKind.forEach((kind, visitors) -> checks[kind.ordinal()] = visitors.toArray(NO_VISITOR));
+      triviaVisitors = checks[Tree.Kind.TRIVIA.ordinal()];
+      visitTokens = checks[Tree.Kind.TOKEN.ordinal()].length > 0 || triviaVisitors.length > 0;
     }
 
     public void run(JavaFileScannerContext javaFileScannerContext) {
-      subscriptionVisitors.forEach(s -> s.setContext(javaFileScannerContext));
+      subscriptionVisitors.forEach(s -> {
+        s.setContext(javaFileScannerContext);
+        s.resumeVisit();
+      });
+      skippingVisitors = 0;
       visit(javaFileScannerContext.getTree());
       subscriptionVisitors.forEach(s -> s.leaveFile(javaFileScannerContext));
     }
 
-    private void visitChildren(Tree tree) {
-      JavaTree javaTree = (JavaTree) tree;
-      if (!javaTree.isLeaf()) {
-        for (Tree next : javaTree.getChildren()) {
-          if (next != null) {
-            visit(next);
+    private void visit(Tree tree) {
+      SubscriptionVisitor[] subscribed = checks[tree.kind().ordinal()];
+      if (tree.kind() == Tree.Kind.TOKEN) {
+        SyntaxToken syntaxToken = (SyntaxToken) tree;
+        for (SubscriptionVisitor visitor : subscribed) {
+          if (visitor.skippedTree() == null) {
+            visitor.visitToken(syntaxToken);
           }
         }
+        if (triviaVisitors.length > 0) {
+          for (SyntaxTrivia trivia : syntaxToken.trivias()) {
+            for (SubscriptionVisitor visitor : triviaVisitors) {
+              if (visitor.skippedTree() == null) {
+                visitor.visitTrivia(trivia);
+              }
+            }
+          }
+        }
+        return;
+      }
+      for (SubscriptionVisitor visitor : subscribed) {
+        if (visitor.skippedTree() == null) {
+          visitor.visitNode(tree);
+          if (visitor.skippedTree() != null) {
+            skippingVisitors++;
+          }
+        }
+      }
+      if (skippingVisitors < subscriptionVisitors.size()) {
+        visitChildren((JavaTree) tree);
+      }
+      for (SubscriptionVisitor visitor : subscribed) {
+        Tree skippedTree = visitor.skippedTree();
+        if (skippedTree == tree) {
+          visitor.resumeVisit();
+          skippingVisitors--;
+          visitor.leaveNode(tree);
+        } else if (skippedTree == null) {
+          visitor.leaveNode(tree);
+        }
       }
     }
 
-    private void visit(Tree tree) {
-      Consumer<SubscriptionVisitor> callback;
-      boolean isToken = tree.kind() == Tree.Kind.TOKEN;
-      if (isToken) {
-        callback = s -> {
-          SyntaxToken syntaxToken = (SyntaxToken) tree;
-          s.visitToken(syntaxToken);
-        };
-      } else {
-        callback = s -> s.visitNode(tree);
+    private void visitChildren(JavaTree tree) {
+      if (tree.isLeaf()) {
+        return;
       }
-      List<SubscriptionVisitor> subscribed = checks.getOrDefault(tree.kind(), Collections.emptyList());
-      subscribed.forEach(callback);
-      if (isToken) {
-        checks.getOrDefault(Tree.Kind.TRIVIA, Collections.emptyList()).forEach(s -> ((SyntaxToken) tree).trivias().forEach(s::visitTrivia));
-      } else {
-        visitChildren(tree);
-      }
-      if(!isToken) {
-        subscribed.forEach(s -> s.leaveNode(tree));
+      // children lists are materialized when linking parents at parse time
+      List<Tree> children = tree.getChildren();
+      for (int i = 0; i < children.size(); i++) {
+        Tree child = children.get(i);
+        if (visitTokens || child.kind() != Tree.Kind.TOKEN) {
+          visit(child);
+        }
       }
     }
   }
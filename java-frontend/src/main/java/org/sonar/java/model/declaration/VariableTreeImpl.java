@@ -26,6 +26,7 @@ import org.sonar.java.model.InternalSyntaxToken;
 import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.expression.IdentifierTreeImpl;
 import org.sonar.java.resolve.JavaSymbol;
+import org.sonar.java.resolve.SemanticModel;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.InferedTypeTree;
@@ -178,6 +179,8 @@ public class VariableTreeImpl extends JavaTree implements VariableTree {
 
   @Override
   public org.sonar.plugins.java.api.semantic.Symbol symbol() {
+    // types of lambda parameters and of variables declared with 'var' are inferred when attributing the enclosing body
+    SemanticModel.completeDeferredBody(this);
     return symbol;
   }
 
@@ -27,6 +27,7 @@ import java.util.Objects;
 import org.sonar.java.model.AbstractTypedTree;
 import org.sonar.java.model.InternalSyntaxToken;
 import org.sonar.java.model.JavaTree;
+import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.resolve.Symbols;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
@@ -73,6 +74,9 @@ public class IdentifierTreeImpl extends AbstractTypedTree implements IdentifierT
 
   @Override
   public Symbol symbol() {
+    if (symbol == Symbols.unknownSymbol) {
+      SemanticModel.completeDeferredBody(this);
+    }
     return symbol;
   }
 
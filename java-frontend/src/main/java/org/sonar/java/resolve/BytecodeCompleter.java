@@ -31,10 +31,9 @@ import java.util.TreeSet;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.plugins.java.api.semantic.Symbol;
 
@@ -82,12 +81,9 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
     }
     Preconditions.checkState(symbol.isPackageSymbol() || classSymbol == symbol);
 
-    byte[] bytes = classLoader.getBytesForClass(bytecodeName);
-    if (bytes != null) {
-      ClassReader classReader = new ClassReader(bytes);
-      classReader.accept(
-        new BytecodeVisitor(this, symbols, classSymbol, parametrizedTypeCache),
-        ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+    ClassNode classStructure = classLoader.getClassStructure(bytecodeName);
+    if (classStructure != null) {
+      classStructure.accept(new BytecodeVisitor(this, symbols, classSymbol, parametrizedTypeCache));
     }
   }
 
@@ -102,19 +98,12 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
     if (owner.isTypeSymbol()) {
       JavaSymbol.TypeJavaSymbol typeSymbol = (JavaSymbol.TypeJavaSymbol) owner;
       String bytecodeName = typeSymbol.getFullyQualifiedName();
-      byte[] bytes = classLoader.getBytesForClass(bytecodeName);
-      if (bytes != null) {
+      ClassNode classStructure = classLoader.getClassStructure(bytecodeName);
+      if (classStructure != null) {
         Map<String, Object> valuesByFieldName = new HashMap<>();
-        ClassReader classReader = new ClassReader(bytes);
-        classReader.accept(
-          new ClassVisitor(ASM_API_VERSION) {
-            @Override
-            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
-              valuesByFieldName.put(name, value);
-              return super.visitField(access, name, descriptor, signature, value);
-            }
-          },
-          ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        for (FieldNode field : classStructure.fields) {
+          valuesByFieldName.put(field.name, field.value);
+        }
         constantValues.put(typeSymbol, valuesByFieldName);
         return valuesByFieldName.get(constantName);
       }
@@ -236,14 +225,12 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
       return symbol;
     }
 
-    byte[] bytesForClass = classLoader.getBytesForClass(fullname);
-    if (bytesForClass == null) {
+    ClassNode classStructure = classLoader.getClassStructure(fullname);
+    if (classStructure == null) {
       return new Resolve.JavaSymbolNotFound();
     }
 
-    ClassReader classReader = new ClassReader(bytesForClass);
-    String className = classReader.getClassName();
-    if (!className.equals(Convert.bytecodeName(fullname))) {
+    if (!classStructure.name.equals(Convert.bytecodeName(fullname))) {
       return new Resolve.JavaSymbolNotFound();
     }
     return getClassSymbol(fullname);
@@ -263,4 +250,11 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
   public Set<String> classesNotFound() {
     return classesNotFound;
   }
+
+  /**
+   * @return flat names of the classes known so far, declared in sources or loaded from the classpath, including those not found
+   */
+  public Set<String> classNames() {
+    return Collections.unmodifiableSet(classes.keySet());
+  }
 }
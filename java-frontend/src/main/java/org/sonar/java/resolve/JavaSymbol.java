@@ -272,11 +272,25 @@ public class JavaSymbol implements Symbol {
   @Override
   public List<IdentifierTree> usages() {
     if (usages == null) {
+      completeDeferredBodies();
       usages = ImmutableList.<IdentifierTree>builder().addAll(usagesBuilder.build().stream().distinct().collect(Collectors.toList())).build();
     }
     return usages;
   }
 
+  private void completeDeferredBodies() {
+    // usages of the symbol can be found in any method body of the file
+    for (JavaSymbol symbol = this; symbol != null; symbol = symbol.owner) {
+      if (symbol.isPackageSymbol()) {
+        SemanticModel semanticModel = ((PackageJavaSymbol) symbol).semanticModelWithDeferredBodies;
+        if (semanticModel != null) {
+          semanticModel.completeAllBodies();
+          return;
+        }
+      }
+    }
+  }
+
   @Nullable
   @Override
   public Tree declaration() {
@@ -298,6 +312,12 @@ public class JavaSymbol implements Symbol {
 
     Scope members;
     TypeJavaSymbol packageInfo;
+    /**
+     * Set on the default package of a semantic model, which owns all the packages it enters, while some method bodies of the
+     * file have not been attributed.
+     */
+    @Nullable
+    SemanticModel semanticModelWithDeferredBodies;
 
     public PackageJavaSymbol(@Nullable String name, @Nullable JavaSymbol owner) {
       super(PCK, 0, name, owner);
@@ -28,13 +28,16 @@ import org.sonar.java.model.AbstractTypedTree;
 import org.sonar.java.model.JavaTree;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Objects;
@@ -47,6 +50,13 @@ public class SemanticModel {
   private final Map<Symbol, Resolve.Env> symbolEnvs = new HashMap<>();
   private final BiMap<Tree, Resolve.Env> envs = HashBiMap.create();
   private final BytecodeCompleter bytecodeCompleter;
+  private final Set<Tree> deferredBodies = new HashSet<>();
+  @Nullable
+  private TypeAndReferenceSolver typeAndReferenceSolver;
+  @Nullable
+  private JavaTree.CompilationUnitTreeImpl compilationUnit;
+  @Nullable
+  private JavaSymbol.PackageJavaSymbol defaultPackage;
 
   @VisibleForTesting
   SemanticModel(BytecodeCompleter bytecodeCompleter) {
@@ -54,6 +64,17 @@ public class SemanticModel {
   }
 
   public static SemanticModel createFor(CompilationUnitTree tree, SquidClassLoader classLoader) {
+    return createFor(tree, classLoader, false);
+  }
+
+  /**
+   * @param deferMethodBodies when true, declarations are resolved but expressions of method bodies are only attributed when
+   *                          their types, symbols or the usages of a symbol are first requested, see {@link #completeDeferredBody(Tree)}.
+   *                          Until all of them are attributed, the model is reachable from the compilation unit and from the
+   *                          default package owning the symbols of the file. {@link #discardDeferredBodies()} has to be called
+   *                          once the file has been analyzed.
+   */
+  public static SemanticModel createFor(CompilationUnitTree tree, SquidClassLoader classLoader, boolean deferMethodBodies) {
     ParametrizedTypeCache parametrizedTypeCache = new ParametrizedTypeCache();
     BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(classLoader, parametrizedTypeCache);
     Symbols symbols = new Symbols(bytecodeCompleter);
@@ -61,27 +82,143 @@ public class SemanticModel {
     try {
       Resolve resolve = new Resolve(symbols, bytecodeCompleter, parametrizedTypeCache);
       TypeAndReferenceSolver typeAndReferenceSolver = new TypeAndReferenceSolver(semanticModel, symbols, resolve, parametrizedTypeCache);
+      if (deferMethodBodies) {
+        typeAndReferenceSolver.deferMethodBodies = true;
+        semanticModel.typeAndReferenceSolver = typeAndReferenceSolver;
+      }
       new FirstPass(semanticModel, symbols, resolve, parametrizedTypeCache, typeAndReferenceSolver).visitCompilationUnit(tree);
       typeAndReferenceSolver.visitCompilationUnit(tree);
       new LabelsVisitor(semanticModel).visitCompilationUnit(tree);
     } finally {
-      handleMissingTypes(tree);
+      new MissingTypeHandler(semanticModel.deferredBodies).handleMissingTypes(tree);
+    }
+    if (!semanticModel.deferredBodies.isEmpty()) {
+      semanticModel.compilationUnit = (JavaTree.CompilationUnitTreeImpl) tree;
+      semanticModel.compilationUnit.setSemanticModelWithDeferredBodies(semanticModel);
+      semanticModel.defaultPackage = symbols.defaultPackage;
+      semanticModel.defaultPackage.semanticModelWithDeferredBodies = semanticModel;
     }
     return semanticModel;
   }
 
+  void deferBody(MethodTree methodTree) {
+    deferredBodies.add(methodTree);
+    markDeferredBody(Objects.requireNonNull(methodTree.block()), true);
+  }
+
+  private static void markDeferredBody(Tree block, boolean inDeferredBody) {
+    Deque<JavaTree> trees = new LinkedList<>();
+    trees.push((JavaTree) block);
+    while (!trees.isEmpty()) {
+      JavaTree tree = trees.pop();
+      tree.setInDeferredBody(inDeferredBody);
+      if (!tree.isLeaf()) {
+        for (Tree child : tree.getChildren()) {
+          if (child != null) {
+            trees.push((JavaTree) child);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Attributes the method body enclosing the given tree, if its attribution has been deferred. Costs nothing for trees outside of
+   * deferred bodies: the compilation unit is only looked up for them.
+   */
+  public static void completeDeferredBody(Tree tree) {
+    if (!((JavaTree) tree).isInDeferredBody()) {
+      return;
+    }
+    Tree root = tree;
+    while (root.parent() != null) {
+      root = root.parent();
+    }
+    if (root.is(Tree.Kind.COMPILATION_UNIT)) {
+      SemanticModel semanticModel = ((JavaTree.CompilationUnitTreeImpl) root).semanticModelWithDeferredBodies();
+      if (semanticModel != null) {
+        semanticModel.completeBodyEnclosing(tree);
+      }
+    }
+  }
+
+  private void completeBodyEnclosing(Tree tree) {
+    Tree parent = tree.parent();
+    while (parent != null) {
+      if (deferredBodies.contains(parent)) {
+        attributeBody((MethodTree) parent);
+        return;
+      }
+      parent = parent.parent();
+    }
+  }
+
+  /**
+   * Attributes all the method bodies of the file whose attribution has been deferred.
+   */
+  public void completeAllBodies() {
+    while (!deferredBodies.isEmpty()) {
+      attributeBody((MethodTree) deferredBodies.iterator().next());
+    }
+  }
+
+  /**
+   * Releases what is needed to attribute deferred method bodies. Bodies which have not been attributed can not be attributed
+   * anymore: requesting types or symbols inside them fails.
+   */
+  public void discardDeferredBodies() {
+    typeAndReferenceSolver = null;
+    if (deferredBodies.isEmpty()) {
+      detachDeferredBodies();
+    }
+  }
+
+  private void detachDeferredBodies() {
+    if (compilationUnit != null) {
+      compilationUnit.setSemanticModelWithDeferredBodies(null);
+      compilationUnit = null;
+    }
+    if (defaultPackage != null) {
+      defaultPackage.semanticModelWithDeferredBodies = null;
+      defaultPackage = null;
+    }
+  }
+
+  private void attributeBody(MethodTree methodTree) {
+    if (typeAndReferenceSolver == null) {
+      throw new IllegalStateException("Body of method '" + methodTree.simpleName().name() + "' at line "
+        + methodTree.simpleName().identifierToken().line() + " can not be attributed once deferred bodies have been discarded");
+    }
+    deferredBodies.remove(methodTree);
+    BlockTree block = Objects.requireNonNull(methodTree.block());
+    markDeferredBody(block, false);
+    try {
+      typeAndReferenceSolver.attributeBody(methodTree);
+    } finally {
+      new MissingTypeHandler(deferredBodies).handleMissingTypes(block);
+      if (deferredBodies.isEmpty()) {
+        detachDeferredBodies();
+      }
+    }
+  }
+
   /**
    * Handles missing types in Syntax Tree to prevent NPE in subsequent steps of analysis.
    */
   public static void handleMissingTypes(Tree tree) {
     // (Godin): Another and probably better (safer) way to do the same - is to assign default value during creation of nodes, so that to guarantee that this step won't be skipped.
-    new MissingTypeHandler().handleMissingTypes(tree);
+    new MissingTypeHandler(Collections.emptySet()).handleMissingTypes(tree);
   }
 
 
   private static class MissingTypeHandler {
+    private final Set<Tree> deferredBodies;
     private Deque<JavaTree> parentList = new LinkedList<>();
 
+    MissingTypeHandler(Set<Tree> deferredBodies) {
+      this.deferredBodies = deferredBodies;
+    }
+
     void handleMissingTypes(Tree tree) {
       parentList.push((JavaTree) tree);
       while (!parentList.isEmpty()) {
@@ -90,9 +227,10 @@ public class SemanticModel {
           ((AbstractTypedTree) parent).completeMissingType();
         }
         if (!parent.isLeaf()) {
+          Tree deferredBlock = deferredBodies.contains(parent) ? ((MethodTree) parent).block() : null;
           for (Tree nextTree : parent.getChildren()) {
             JavaTree next = (JavaTree) nextTree;
-            if (next != null) {
+            if (next != null && next != deferredBlock) {
               next.setParent(parent);
               parentList.push(next);
             }
@@ -143,7 +281,12 @@ public class SemanticModel {
 
   @Nullable
   public Symbol getSymbol(Tree tree) {
-    return symbolsTree.get(tree);
+    Symbol symbol = symbolsTree.get(tree);
+    if (symbol == null && !deferredBodies.isEmpty()) {
+      completeBodyEnclosing(tree);
+      symbol = symbolsTree.get(tree);
+    }
+    return symbol;
   }
 
   @VisibleForTesting
@@ -155,6 +298,13 @@ public class SemanticModel {
     return bytecodeCompleter.classesNotFound();
   }
 
+  /**
+   * @return flat names of the classes resolved by the model, declared in the file or loaded from the classpath
+   */
+  public Set<String> resolvedClasses() {
+    return bytecodeCompleter.classNames();
+  }
+
   @CheckForNull
   public Object constantValue(Symbol owner, String constantName) {
     return bytecodeCompleter.constantValue(owner, constantName);
@@ -109,6 +109,7 @@ public class TypeAndReferenceSolver extends BaseTreeVisitor {
 
   private final Map<Tree, JavaType> types = new HashMap<>();
   Resolve.Env env;
+  boolean deferMethodBodies = false;
 
   public TypeAndReferenceSolver(SemanticModel semanticModel, Symbols symbols, Resolve resolve, ParametrizedTypeCache parametrizedTypeCache) {
     this.semanticModel = semanticModel;
@@ -134,7 +135,27 @@ public class TypeAndReferenceSolver extends BaseTreeVisitor {
     // revisits the parameters to resolve their annotations.
     scan(tree.parameters());
     scan(tree.defaultValue());
-    scan(tree.block());
+    if (deferMethodBodies && tree.block() != null) {
+      semanticModel.deferBody(tree);
+    } else {
+      scan(tree.block());
+    }
+  }
+
+  /**
+   * Attributes a deferred method body, including the bodies of the local and anonymous classes it declares.
+   */
+  void attributeBody(MethodTree tree) {
+    // attribution can be requested while completing a symbol, which sets the environment of its declaration
+    Resolve.Env savedEnv = env;
+    env = null;
+    deferMethodBodies = false;
+    try {
+      scan(tree.block());
+    } finally {
+      env = savedEnv;
+      deferMethodBodies = true;
+    }
   }
 
   @Override
@@ -34,6 +34,12 @@ public interface CheckerContext {
 
   void reportIssue(Tree tree, SECheck check, String message, Set<Flow> flows);
 
+  /**
+   * Flows of an issue raised on the given tree are not reported when the issue is suppressed (with NOSONAR): checks should then
+   * not spend time computing them.
+   */
+  boolean flowsReported(Tree tree);
+
   void addTransition(ProgramState state);
 
   void addExceptionalYield(SymbolicValue target, ProgramState exceptionalState, String exceptionFullyQualifiedName, SECheck check);
@@ -89,6 +89,11 @@ public class CheckerDispatcher implements CheckerContext {
     check.reportIssue(tree, message, flows);
   }
 
+  @Override
+  public boolean flowsReported(Tree tree) {
+    return explodedGraphWalker.flowsReported.test(tree);
+  }
+
   @Override
   public void addTransition(ProgramState state) {
     ProgramState oldState = explodedGraphWalker.programState;
@@ -29,6 +29,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 import javax.annotation.Nullable;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -39,6 +40,7 @@ public class ExplodedGraph {
 
   private final Map<Node, Node> nodes = new HashMap<>();
   private final Multimap<ProgramPoint, Node> nodesByProgramPoint = LinkedListMultimap.create();
+  private int edgeCount = 0;
 
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
@@ -66,7 +68,11 @@ public class ExplodedGraph {
     @Nullable
     public final ProgramState programState;
 
-    private final Map<Node, Edge> edges = new HashMap<>();
+    // most nodes have a single parent: the map of edges is only allocated once a second parent is added
+    @Nullable
+    private Edge singleEdge;
+    @Nullable
+    private Map<Node, Edge> edges;
 
     private boolean isNew;
     boolean exitPath = false;
@@ -85,11 +91,28 @@ public class ExplodedGraph {
       if (parent == null) {
         return;
       }
-      Edge edge = edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      Edge edge = edgeFrom(parent);
       if (methodYield != null) {
         Preconditions.checkState(parent.programPoint.syntaxTree().is(Tree.Kind.METHOD_INVOCATION), "Yield on edge where parent is not MIT");
-        edge.yields.add(methodYield);
+        edge.addYield(methodYield);
+      }
+    }
+
+    private Edge edgeFrom(Node parent) {
+      if (edges != null) {
+        return edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      }
+      if (singleEdge == null) {
+        singleEdge = new Edge(this, parent);
+        return singleEdge;
       }
+      if (singleEdge.parent.equals(parent)) {
+        return singleEdge;
+      }
+      edges = new HashMap<>();
+      edges.put(singleEdge.parent, singleEdge);
+      singleEdge = null;
+      return edges.computeIfAbsent(parent, p -> new Edge(this, p));
     }
 
     public Collection<Node> siblings() {
@@ -107,7 +130,10 @@ public class ExplodedGraph {
      * @return the ordered (by insertion) sets of parents
      */
     public Set<Node> parents() {
-      return edges.keySet();
+      if (edges != null) {
+        return edges.keySet();
+      }
+      return singleEdge == null ? Collections.emptySet() : Collections.singleton(singleEdge.parent);
     }
 
     @Override
@@ -131,7 +157,10 @@ public class ExplodedGraph {
     }
 
     public Collection<Edge> edges() {
-      return edges.values();
+      if (edges != null) {
+        return edges.values();
+      }
+      return singleEdge == null ? Collections.emptyList() : Collections.singletonList(singleEdge);
     }
 
     public boolean isNew() {
@@ -143,16 +172,19 @@ public class ExplodedGraph {
     final Node child;
     final Node parent;
     final int hashcode;
+    // dense index of the edge in its graph, used by flow computation to record visited edges in bitsets
+    final int id;
 
     private Set<LearnedConstraint> lc;
     private Set<LearnedAssociation> la;
-    private final Set<MethodYield> yields = new LinkedHashSet<>();
+    private Set<MethodYield> yields = Collections.emptySet();
 
     private Edge(Node child, Node parent) {
       Preconditions.checkState(!child.equals(parent));
       this.child = child;
       this.parent = parent;
       hashcode = Objects.hash(child, parent);
+      id = child.explodedGraph.edgeCount++;
     }
 
     public Node child() {
@@ -181,6 +213,14 @@ public class ExplodedGraph {
       return yields;
     }
 
+    private void addYield(MethodYield methodYield) {
+      if (yields.isEmpty()) {
+        // only edges from method invocations have yields
+        yields = new LinkedHashSet<>();
+      }
+      yields.add(methodYield);
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -30,6 +30,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -37,6 +38,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
@@ -64,6 +67,7 @@ import org.sonar.java.se.checks.SECheck;
 import org.sonar.java.se.checks.StreamConsumedCheck;
 import org.sonar.java.se.checks.UnclosedResourcesCheck;
 import org.sonar.java.se.constraint.BooleanConstraint;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.java.se.constraint.ConstraintManager;
 import org.sonar.java.se.constraint.ObjectConstraint;
 import org.sonar.java.se.symbolicvalues.RelationalSymbolicValue;
@@ -108,10 +112,10 @@ public class ExplodedGraphWalker {
   /**
    * Arbitrary number to limit symbolic execution.
    */
-  private static final int MAX_STEPS = 16_000;
+  static final int MAX_STEPS = 16_000;
   public static final int MAX_NESTED_BOOLEAN_STATES = 10_000;
   // would correspond to 10 parameters annotated with @Nullable
-  private static final int MAX_STARTING_STATES = 1_024;
+  static final int MAX_STARTING_STATES = 1_024;
   private static final Logger LOG = Loggers.get(ExplodedGraphWalker.class);
   private static final Set<String> THIS_SUPER = ImmutableSet.of("this", "super");
 
@@ -154,6 +158,19 @@ public class ExplodedGraphWalker {
   @Nullable
   MethodBehavior methodBehavior;
   private Set<ExplodedGraph.Node> endOfExecutionPath;
+  // work list of the strategies exploring nodes by priority, null when nodes are explored by order of enqueueing
+  @Nullable
+  private PrioritizedWorkList prioritizedWorkList;
+  private Predicate<Class<? extends Constraint>> generalizableDomain = domain -> false;
+  // nodes enqueued at join points, by hash of the parts of their state which have to be equal for a state to subsume another
+  @Nullable
+  private Map<ProgramPoint, Map<Integer, List<ExplodedGraph.Node>>> joinPointNodes;
+  private ExplorationLimits limits = ExplorationLimits.DEFAULT;
+  long fileDeadline = Long.MAX_VALUE;
+  Predicate<Tree> flowsReported = tree -> true;
+  private long methodDeadline = Long.MAX_VALUE;
+  @Nullable
+  ExplorationLimits.Limit stoppedBy;
 
   public static class ExplodedGraphTooBigException extends RuntimeException {
 
@@ -221,7 +238,7 @@ public class ExplodedGraphWalker {
   }
 
   private void execute(MethodTree tree) {
-    CFG cfg = CFG.build(tree);
+    CFG cfg = (CFG) tree.cfg();
     exitBlock = cfg.exitBlock();
     checkerDispatcher.init(tree, cfg);
     liveVariables = LiveVariables.analyze(cfg);
@@ -229,6 +246,8 @@ public class ExplodedGraphWalker {
     methodTree = tree;
     constraintManager = new ConstraintManager();
     workList = new LinkedList<>();
+    prioritizedWorkList = PrioritizedWorkList.create(limits.strategy(), cfg);
+    joinPointNodes = limits.stateSubsumption() ? new HashMap<>() : null;
     // Linked hashSet is required to guarantee order of yields to be generated
     endOfExecutionPath = new LinkedHashSet<>();
     if(DEBUG_MODE_ACTIVATED) {
@@ -236,16 +255,22 @@ public class ExplodedGraphWalker {
     }
     programState = ProgramState.EMPTY_STATE;
     steps = 0;
+    stoppedBy = null;
+    if (limits.methodTimeoutMillis() > 0) {
+      methodDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limits.methodTimeoutMillis());
+    }
     for (ProgramState startingState : startingStates(tree, programState)) {
       enqueue(new ProgramPoint(cfg.entryBlock()), startingState);
     }
-    while (!workList.isEmpty()) {
+    while (workListSize() > 0) {
       steps++;
       if (steps > maxSteps()) {
         throwMaxSteps(tree);
       }
-      // LIFO:
-      setNode(workList.removeFirst());
+      setNode(nextNode());
+      if (methodDeadline != Long.MAX_VALUE || fileDeadline != Long.MAX_VALUE) {
+        checkDeadlines(tree);
+      }
       CFG.Block block = (CFG.Block) programPosition.block;
       if (block.successors().isEmpty()) {
         endOfExecutionPath.add(node);
@@ -279,12 +304,30 @@ public class ExplodedGraphWalker {
     checkerDispatcher.executeCheckEndOfExecution();
     // Cleanup:
     workList = null;
+    prioritizedWorkList = null;
+    joinPointNodes = null;
     node = null;
     programState = null;
     constraintManager = null;
   }
 
+  private ExplodedGraph.Node nextNode() {
+    if (prioritizedWorkList != null) {
+      return prioritizedWorkList.poll();
+    }
+    if (limits.strategy() == ExplorationStrategy.BREADTH_FIRST) {
+      return workList.removeLast();
+    }
+    // LIFO
+    return workList.removeFirst();
+  }
+
+  private int workListSize() {
+    return prioritizedWorkList != null ? prioritizedWorkList.size() : workList.size();
+  }
+
   private void throwTooManyTransitiveRelationsException(MethodTree tree, RelationalSymbolicValue.TransitiveRelationExceededException e) {
+    stoppedBy = ExplorationLimits.Limit.TRANSITIVE_RELATIONS;
     String message = String.format("reached maximum number of transitive relations generated for method %s in class %s",
       tree.simpleName().name(), tree.symbol().owner().name());
     MaximumStepsReachedException cause = new MaximumStepsReachedException(message, e);
@@ -293,6 +336,7 @@ public class ExplodedGraphWalker {
   }
 
   private void throwTooManyBooleanStates(MethodTree tree, TooManyNestedBooleanStatesException e) {
+    stoppedBy = ExplorationLimits.Limit.NESTED_BOOLEAN_STATES;
     String message = String.format("reached maximum number of %d branched states for method %s in class %s",
       MAX_NESTED_BOOLEAN_STATES, tree.simpleName().name(), tree.symbol().owner().name());
     MaximumStepsReachedException cause = new MaximumStepsReachedException(message, e);
@@ -301,6 +345,7 @@ public class ExplodedGraphWalker {
   }
 
   private void throwMaxSteps(MethodTree tree) {
+    stoppedBy = ExplorationLimits.Limit.STEPS;
     String message = String.format("reached limit of %d steps for method %s#%d in class %s",
       maxSteps(), tree.simpleName().name(), tree.simpleName().firstToken().line(), tree.symbol().owner().name());
     MaximumStepsReachedException cause = new MaximumStepsReachedException(message);
@@ -308,6 +353,25 @@ public class ExplodedGraphWalker {
     throw cause;
   }
 
+  private void checkDeadlines(MethodTree tree) {
+    long now = System.nanoTime();
+    String message;
+    if (now > methodDeadline) {
+      stoppedBy = ExplorationLimits.Limit.METHOD_TIME;
+      message = String.format("reached time budget of %d ms for method %s#%d in class %s",
+        limits.methodTimeoutMillis(), tree.simpleName().name(), tree.simpleName().firstToken().line(), tree.symbol().owner().name());
+    } else if (now > fileDeadline) {
+      stoppedBy = ExplorationLimits.Limit.FILE_TIME;
+      message = String.format("reached time budget of %d ms for file while exploring method %s#%d in class %s",
+        limits.fileTimeoutMillis(), tree.simpleName().name(), tree.simpleName().firstToken().line(), tree.symbol().owner().name());
+    } else {
+      return;
+    }
+    MaximumStepsReachedException cause = new MaximumStepsReachedException(message);
+    interrupted(cause);
+    throw cause;
+  }
+
   private void interrupted(Exception cause) {
     handleEndOfExecutionPath(true);
     checkerDispatcher.interruptedExecution(cause);
@@ -360,7 +424,7 @@ public class ExplodedGraphWalker {
       if (isEqualsMethod || parameterCanBeNull(variableSymbol, nullableParameters)) {
         // each nullable parameter generate 2 starting states, combined with all the others
         numberStartingStates *= 2;
-        if (numberStartingStates > MAX_STARTING_STATES) {
+        if (numberStartingStates > limits.maxStartingStates()) {
           throwMaximumStartingStates(methodTree);
         }
         stateStream = stateStream.flatMap((ProgramState ps) ->
@@ -375,9 +439,10 @@ public class ExplodedGraphWalker {
     return stateStream.collect(Collectors.toList());
   }
 
-  private static void throwMaximumStartingStates(MethodTree tree) {
+  private void throwMaximumStartingStates(MethodTree tree) {
+    stoppedBy = ExplorationLimits.Limit.STARTING_STATES;
     String message = String.format("reached maximum number of %d starting states for method %s in class %s",
-      MAX_STARTING_STATES, tree.simpleName().name(), tree.symbol().owner().name());
+      limits.maxStartingStates(), tree.simpleName().name(), tree.symbol().owner().name());
     throw new MaximumStartingStatesException(message);
   }
 
@@ -388,9 +453,13 @@ public class ExplodedGraphWalker {
     return isAnnotatedNullable(variableSymbol) || (nullableParameters && !isAnnotatedNonNull(variableSymbol));
   }
 
+  private Collection<SymbolicValue> protectedSymbolicValues() {
+    return methodBehavior == null ? Collections.emptyList() : methodBehavior.parameters();
+  }
+
   private void cleanUpProgramState(CFG.Block block) {
     if (cleanup) {
-      Collection<SymbolicValue> protectedSVs = methodBehavior == null ? Collections.emptyList() : methodBehavior.parameters();
+      Collection<SymbolicValue> protectedSVs = protectedSymbolicValues();
       programState = programState.cleanupDeadSymbols(liveVariables.getOut(block), protectedSVs);
       programState = programState.cleanupConstraints(protectedSVs);
     }
@@ -1109,7 +1178,7 @@ public class ExplodedGraphWalker {
     ProgramPoint programPoint = newProgramPoint;
 
     int nbOfExecution = programState.numberOfTimeVisited(programPoint);
-    if (nbOfExecution > MAX_EXEC_PROGRAM_POINT) {
+    if (nbOfExecution > limits.maxExecProgramPoint()) {
       if (isRestartingForEachLoop(programPoint)) {
         // reached the max number of visit by program point, so take the false branch with current program state
         programPoint = new ProgramPoint(((CFG.Block) programPoint.block).falseBlock());
@@ -1120,6 +1189,21 @@ public class ExplodedGraphWalker {
     }
     checkExplodedGraphTooBig(programState);
     ProgramState ps = programState.visitedPoint(programPoint, nbOfExecution + 1);
+    List<ExplodedGraph.Node> nodesAtJoinPoint = null;
+    if (joinPointNodes != null && isJoinPoint(programPoint)) {
+      if (cleanup) {
+        // constraints set when branching are only cleaned up at the end of the next block
+        ps = ps.cleanupConstraints(protectedSymbolicValues());
+      }
+      nodesAtJoinPoint = joinPointNodes.computeIfAbsent(programPoint, p -> new HashMap<>()).computeIfAbsent(ps.subsumptionHash(), h -> new ArrayList<>());
+      for (ExplodedGraph.Node nodeAtJoinPoint : nodesAtJoinPoint) {
+        if (exitPath == nodeAtJoinPoint.exitPath && nodeAtJoinPoint.programState.subsumes(ps, generalizableDomain)) {
+          // exploring the new state would not report anything more than exploring the state which has been enqueued earlier
+          nodeAtJoinPoint.addParent(node, methodYield);
+          return;
+        }
+      }
+    }
     ExplodedGraph.Node cachedNode = explodedGraph.node(programPoint, ps);
     if (!cachedNode.isNew() && exitPath == cachedNode.exitPath) {
       // has been enqueued earlier
@@ -1128,7 +1212,18 @@ public class ExplodedGraphWalker {
     }
     cachedNode.exitPath = exitPath;
     cachedNode.addParent(node, methodYield);
-    workList.addFirst(cachedNode);
+    if (prioritizedWorkList != null) {
+      prioritizedWorkList.add(cachedNode);
+    } else {
+      workList.addFirst(cachedNode);
+    }
+    if (nodesAtJoinPoint != null) {
+      nodesAtJoinPoint.add(cachedNode);
+    }
+  }
+
+  private static boolean isJoinPoint(ProgramPoint programPoint) {
+    return programPoint.i == 0 && ((CFG.Block) programPoint.block).predecessors().size() > 1;
   }
 
   private static boolean isRestartingForEachLoop(ProgramPoint programPoint) {
@@ -1138,7 +1233,8 @@ public class ExplodedGraphWalker {
 
   private void checkExplodedGraphTooBig(ProgramState programState) {
     // Arbitrary formula to avoid out of memory errors
-    if (steps + workList.size() > maxSteps() / 2 && programState.constraintsSize() > 75) {
+    if (steps + workListSize() > maxSteps() / 2 && programState.constraintsSize() > 75) {
+      stoppedBy = ExplorationLimits.Limit.GRAPH_SIZE;
       throw new ExplodedGraphTooBigException("Program state constraints are too big : stopping Symbolic Execution for method "
         + methodTree.simpleName().name() + " in class " + methodTree.symbol().owner().name());
     }
@@ -1146,7 +1242,15 @@ public class ExplodedGraphWalker {
 
   @VisibleForTesting
   protected int maxSteps() {
-    return MAX_STEPS;
+    return limits.maxSteps();
+  }
+
+  /**
+   * @return graph of the last explored method, null if no method with a body has been explored
+   */
+  @CheckForNull
+  ExplodedGraph explodedGraph() {
+    return explodedGraph;
   }
 
   AlwaysTrueOrFalseExpressionCollector alwaysTrueOrFalseExpressionCollector() {
@@ -1162,8 +1266,17 @@ public class ExplodedGraphWalker {
 
     @VisibleForTesting
     final List<SECheck> seChecks = new ArrayList<>();
+    private final ExplorationLimits limits;
+    // domains of check-specific constraints read by active checks, null when an active check can read any domain
+    @Nullable
+    private final Set<Class<? extends Constraint>> observedDomains;
 
     public ExplodedGraphWalkerFactory(List<JavaFileScanner> scanners) {
+      this(scanners, ExplorationLimits.DEFAULT);
+    }
+
+    public ExplodedGraphWalkerFactory(List<JavaFileScanner> scanners, ExplorationLimits limits) {
+      this.limits = limits;
       List<SECheck> debugChecks = new ArrayList<>();
       List<SECheck> checks = new ArrayList<>();
       for (JavaFileScanner scanner : scanners) {
@@ -1191,10 +1304,43 @@ public class ExplodedGraphWalker {
       seChecks.add(removeOrDefault(checks, new RedundantAssignmentsCheck()));
 
       seChecks.addAll(checks);
+      observedDomains = observedDomains(seChecks.stream().filter(scanners::contains).collect(Collectors.toList()));
+    }
+
+    @CheckForNull
+    private static Set<Class<? extends Constraint>> observedDomains(List<SECheck> activeChecks) {
+      // zero constraints are read by the engine itself when computing method behaviors
+      Set<Class<? extends Constraint>> domains = new HashSet<>(Collections.singleton(DivisionByZeroCheck.ZeroConstraint.class));
+      for (SECheck check : activeChecks) {
+        Set<Class<? extends Constraint>> checkDomains = check.observedConstraintDomains();
+        if (checkDomains == null) {
+          return null;
+        }
+        domains.addAll(checkDomains);
+      }
+      return domains;
     }
 
     public ExplodedGraphWalker createWalker(BehaviorCache behaviorCache, SemanticModel semanticModel) {
-      return new ExplodedGraphWalker(seChecks, behaviorCache, semanticModel);
+      ExplodedGraphWalker walker = new ExplodedGraphWalker(seChecks, behaviorCache, semanticModel);
+      walker.limits = limits;
+      walker.generalizableDomain = this::isGeneralizable;
+      return walker;
+    }
+
+    /**
+     * Constraints specific to a check are declared in its class, they can be generalized when no active check reads them.
+     */
+    private boolean isGeneralizable(Class<? extends Constraint> domain) {
+      if (observedDomains == null || observedDomains.contains(domain)) {
+        return false;
+      }
+      for (Class<?> enclosingClass = domain.getEnclosingClass(); enclosingClass != null; enclosingClass = enclosingClass.getEnclosingClass()) {
+        if (SECheck.class.isAssignableFrom(enclosingClass)) {
+          return true;
+        }
+      }
+      return false;
     }
 
     @SuppressWarnings("unchecked")
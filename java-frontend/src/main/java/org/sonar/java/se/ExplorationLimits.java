@@ -0,0 +1,111 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+/**
+ * Budgets bounding the exploration of a method by the {@link ExplodedGraphWalker}. When one of them is reached, exploration
+ * of the method is stopped and no issue relying on its unexplored paths is reported. The {@link ExplorationStrategy} decides
+ * which paths are explored first.
+ */
+public class ExplorationLimits {
+
+  public static final ExplorationLimits DEFAULT = new ExplorationLimits(ExplodedGraphWalker.MAX_STEPS, ExplodedGraphWalker.MAX_STARTING_STATES,
+    ExplodedGraphWalker.MAX_EXEC_PROGRAM_POINT, 0, 0);
+
+  /**
+   * Limits which can stop the exploration of a method.
+   */
+  public enum Limit {
+    STEPS,
+    STARTING_STATES,
+    NESTED_BOOLEAN_STATES,
+    TRANSITIVE_RELATIONS,
+    GRAPH_SIZE,
+    METHOD_TIME,
+    FILE_TIME
+  }
+
+  private final int maxSteps;
+  private final int maxStartingStates;
+  private final int maxExecProgramPoint;
+  private final long methodTimeoutMillis;
+  private final long fileTimeoutMillis;
+  private final ExplorationStrategy strategy;
+  private final boolean stateSubsumption;
+
+  public ExplorationLimits(int maxSteps, int maxStartingStates, int maxExecProgramPoint, long methodTimeoutMillis, long fileTimeoutMillis) {
+    this(maxSteps, maxStartingStates, maxExecProgramPoint, methodTimeoutMillis, fileTimeoutMillis, ExplorationStrategy.DEPTH_FIRST, false);
+  }
+
+  /**
+   * @param methodTimeoutMillis wall-clock budget to explore one method, values lower than 1 disable it
+   * @param fileTimeoutMillis wall-clock budget to explore all the methods of a file, values lower than 1 disable it
+   * @param stateSubsumption whether program states reaching a join point are dropped when a more general state already reached it
+   */
+  public ExplorationLimits(int maxSteps, int maxStartingStates, int maxExecProgramPoint, long methodTimeoutMillis, long fileTimeoutMillis,
+    ExplorationStrategy strategy, boolean stateSubsumption) {
+    this.maxSteps = maxSteps;
+    this.maxStartingStates = maxStartingStates;
+    this.maxExecProgramPoint = maxExecProgramPoint;
+    this.methodTimeoutMillis = methodTimeoutMillis;
+    this.fileTimeoutMillis = fileTimeoutMillis;
+    this.strategy = strategy;
+    this.stateSubsumption = stateSubsumption;
+  }
+
+  public int maxSteps() {
+    return maxSteps;
+  }
+
+  public int maxStartingStates() {
+    return maxStartingStates;
+  }
+
+  /**
+   * @return number of times a program point can be visited along one path, loops being unrolled at most this number of times
+   */
+  public int maxExecProgramPoint() {
+    return maxExecProgramPoint;
+  }
+
+  public long methodTimeoutMillis() {
+    return methodTimeoutMillis;
+  }
+
+  public long fileTimeoutMillis() {
+    return fileTimeoutMillis;
+  }
+
+  public ExplorationStrategy strategy() {
+    return strategy;
+  }
+
+  /**
+   * @return whether states are merged at join points, see {@link ProgramState#subsumes}
+   */
+  public boolean stateSubsumption() {
+    return stateSubsumption;
+  }
+
+  @Override
+  public String toString() {
+    return maxSteps + ":" + maxStartingStates + ":" + maxExecProgramPoint + ":" + methodTimeoutMillis + ":" + fileTimeoutMillis + ":" + strategy + ":" + stateSubsumption;
+  }
+}
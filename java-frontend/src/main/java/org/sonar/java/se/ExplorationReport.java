@@ -0,0 +1,107 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * Telemetry of symbolic execution over an analysis: number of explored methods, limits which stopped their exploration, and
+ * the most expensive methods in wall-clock time. Time of a method includes the exploration of the callees whose behavior is
+ * computed on demand while exploring it.
+ */
+public class ExplorationReport {
+
+  private static final Logger LOG = Loggers.get(ExplorationReport.class);
+  private static final Comparator<MethodExploration> BY_TIME = Comparator.comparingLong(m -> m.nanos);
+
+  private final int size;
+  private final PriorityQueue<MethodExploration> mostExpensive = new PriorityQueue<>(BY_TIME);
+  private final Map<ExplorationLimits.Limit, Integer> stops = new EnumMap<>(ExplorationLimits.Limit.class);
+  private int exploredMethods = 0;
+
+  /**
+   * @param size number of most expensive methods to report
+   */
+  public ExplorationReport(int size) {
+    this.size = size;
+  }
+
+  void add(String file, MethodTree methodTree, int steps, ExplodedGraph explodedGraph, long nanos, @Nullable ExplorationLimits.Limit stoppedBy) {
+    exploredMethods++;
+    if (stoppedBy != null) {
+      stops.merge(stoppedBy, 1, Integer::sum);
+    }
+    if (mostExpensive.size() >= size && (size == 0 || mostExpensive.peek().nanos >= nanos)) {
+      return;
+    }
+    MethodExploration exploration = new MethodExploration();
+    exploration.file = file;
+    exploration.method = methodTree.symbol().owner().name() + "#" + methodTree.simpleName().name() + ":" + methodTree.simpleName().firstToken().line();
+    exploration.steps = steps;
+    exploration.nodes = explodedGraph.nodes().size();
+    exploration.programStates = (int) explodedGraph.nodes().keySet().stream().map(n -> n.programState).distinct().count();
+    exploration.nanos = nanos;
+    exploration.stoppedBy = stoppedBy;
+    mostExpensive.add(exploration);
+    if (mostExpensive.size() > size) {
+      mostExpensive.poll();
+    }
+  }
+
+  List<MethodExploration> mostExpensiveMethods() {
+    List<MethodExploration> methods = new ArrayList<>(mostExpensive);
+    methods.sort(BY_TIME.reversed());
+    return methods;
+  }
+
+  public void log() {
+    LOG.info("Symbolic execution explored {} method(s), exploration stopped by limits: {}", exploredMethods, stops);
+    for (MethodExploration exploration : mostExpensiveMethods()) {
+      LOG.info("{}", exploration);
+    }
+  }
+
+  static class MethodExploration {
+    String file;
+    String method;
+    int steps;
+    int nodes;
+    int programStates;
+    long nanos;
+    @Nullable
+    ExplorationLimits.Limit stoppedBy;
+
+    @Override
+    public String toString() {
+      return String.format("%d ms, %d steps, %d nodes, %d program states, %s: %s %s", TimeUnit.NANOSECONDS.toMillis(nanos), steps, nodes, programStates,
+        stoppedBy == null ? "completed" : ("stopped by " + stoppedBy), file, method);
+    }
+  }
+}
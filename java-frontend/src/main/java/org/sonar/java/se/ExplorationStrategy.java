@@ -0,0 +1,45 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+/**
+ * Order in which the {@link ExplodedGraphWalker} explores the nodes waiting in its work list. It does not change what can be
+ * explored, only which paths are explored first, and so which ones are left unexplored when a budget runs out.
+ */
+public enum ExplorationStrategy {
+  /**
+   * Most recently enqueued node first: a path is followed until its end before exploring alternatives.
+   */
+  DEPTH_FIRST,
+  /**
+   * Least recently enqueued node first: paths are explored in parallel, one step at a time.
+   */
+  BREADTH_FIRST,
+  /**
+   * Node whose block comes first in reverse postorder of the CFG: the code before a join point is explored on all paths before
+   * the code after it.
+   */
+  REVERSE_POSTORDER,
+  /**
+   * Node whose program point has been explored the least: unexplored parts of the method are favoured over the paths
+   * already explored.
+   */
+  COVERAGE
+}
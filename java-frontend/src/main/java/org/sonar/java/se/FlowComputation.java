@@ -115,7 +115,16 @@ public class FlowComputation {
   }
 
   public static Set<Flow> flow(ExplodedGraph.Node currentNode, @Nullable SymbolicValue currentVal, List<Class<? extends Constraint>> domains, @Nullable Symbol trackSymbol) {
-    return flow(currentNode, setFromNullable(currentVal), c -> true, c -> false, domains, setFromNullable(trackSymbol), false);
+    return flow(currentNode, currentVal, domains, trackSymbol, new StepBudget());
+  }
+
+  /**
+   * Same as {@link #flow(Node, SymbolicValue, List, Symbol)}, consuming steps from the given budget: sharing a budget between the
+   * computations of the flows of a single issue bounds the cost of issues reached by many paths.
+   */
+  public static Set<Flow> flow(ExplodedGraph.Node currentNode, @Nullable SymbolicValue currentVal, List<Class<? extends Constraint>> domains, @Nullable Symbol trackSymbol,
+    StepBudget budget) {
+    return flow(currentNode, setFromNullable(currentVal), c -> true, c -> false, domains, setFromNullable(trackSymbol), false, budget);
   }
 
   public static Set<Flow> flowWithoutExceptions(ExplodedGraph.Node currentNode, @Nullable SymbolicValue currentVal, Predicate<Constraint> addToFlow,
@@ -130,6 +139,11 @@ public class FlowComputation {
 
   private static Set<Flow> flow(ExplodedGraph.Node currentNode, Set<SymbolicValue> symbolicValues, Predicate<Constraint> addToFlow,
     Predicate<Constraint> terminateTraversal, List<Class<? extends Constraint>> domains, Set<Symbol> symbols, boolean skipExceptionMessages) {
+    return flow(currentNode, symbolicValues, addToFlow, terminateTraversal, domains, symbols, skipExceptionMessages, new StepBudget());
+  }
+
+  private static Set<Flow> flow(ExplodedGraph.Node currentNode, Set<SymbolicValue> symbolicValues, Predicate<Constraint> addToFlow,
+    Predicate<Constraint> terminateTraversal, List<Class<? extends Constraint>> domains, Set<Symbol> symbols, boolean skipExceptionMessages, StepBudget budget) {
     Set<SymbolicValue> allSymbolicValues = symbolicValues.stream()
       .map(FlowComputation::computedFrom)
       .flatMap(Set::stream)
@@ -148,19 +162,21 @@ public class FlowComputation {
       }
     }
     FlowComputation flowComputation = new FlowComputation(allSymbolicValues, addToFlow, terminateTraversal, domains, skipExceptionMessages);
-    return flowComputation.run(currentNode, trackedSymbols);
+    return flowComputation.run(currentNode, trackedSymbols, budget);
   }
 
   private static <T> Set<T> setFromNullable(@Nullable T val) {
     return val == null ? Collections.emptySet() : Collections.singleton(val);
   }
 
-  private Set<Flow> run(final ExplodedGraph.Node node, PSet<Symbol> trackedSymbols) {
+  private Set<Flow> run(final ExplodedGraph.Node node, PSet<Symbol> trackedSymbols, StepBudget budget) {
     Set<Flow> flows = new HashSet<>();
+    if (budget.exhausted()) {
+      return flows;
+    }
     Deque<ExecutionPath> workList = new ArrayDeque<>();
     SameConstraints sameConstraints = new SameConstraints(node, trackedSymbols, domains);
     node.edges().stream().flatMap(e -> startPath(e, trackedSymbols, sameConstraints)).forEach(workList::push);
-    int flowSteps = 0;
     Set<ExecutionPath> visited = new HashSet<>(workList);
     while (!workList.isEmpty()) {
       ExecutionPath path = workList.pop();
@@ -176,8 +192,8 @@ public class FlowComputation {
             }
           });
       }
-      flowSteps++;
-      if(flowSteps == MAX_FLOW_STEPS) {
+      budget.remainingSteps--;
+      if (budget.exhausted()) {
         LOG.debug("Flow was not able to complete");
         break;
       }
@@ -186,7 +202,7 @@ public class FlowComputation {
   }
 
   Stream<ExecutionPath> startPath(ExplodedGraph.Edge edge, PSet<Symbol> trackedSymbols, SameConstraints sameConstraints) {
-    return new ExecutionPath(null, PCollections.emptySet(), trackedSymbols, sameConstraints, Flow.empty(), false).addEdge(edge);
+    return new ExecutionPath(null, EdgeSet.EMPTY, trackedSymbols, sameConstraints, Flow.empty(), false).addEdge(edge);
   }
 
   private static class SameConstraints {
@@ -254,11 +270,11 @@ public class FlowComputation {
     final PSet<Symbol> trackedSymbols;
     final SameConstraints sameConstraints;
     final ExplodedGraph.Edge lastEdge;
-    final PSet<ExplodedGraph.Edge> visited;
+    final EdgeSet visited;
     final Flow flow;
     final boolean finished;
 
-    private ExecutionPath(@Nullable ExplodedGraph.Edge edge, PSet<ExplodedGraph.Edge> visited, PSet<Symbol> trackedSymbols, SameConstraints sameConstraints,
+    private ExecutionPath(@Nullable ExplodedGraph.Edge edge, EdgeSet visited, PSet<Symbol> trackedSymbols, SameConstraints sameConstraints,
                           Flow flow, boolean finished) {
       this.trackedSymbols = trackedSymbols;
       this.sameConstraints = sameConstraints;
@@ -322,12 +338,13 @@ public class FlowComputation {
 
       Flow currentFlow = flowBuilder.build();
       Set<Flow> yieldsFlows = flowFromYields(edge);
+      EdgeSet newVisited = visited.add(edge);
       if (yieldsFlows.isEmpty()) {
-        return Stream.of(new ExecutionPath(edge, visited.add(edge), newTrackSymbols, newSameConstraints, Flow.of(currentFlow), endOfPath));
+        return Stream.of(new ExecutionPath(edge, newVisited, newTrackSymbols, newSameConstraints, Flow.of(currentFlow), endOfPath));
       }
       return yieldsFlows.stream()
         .map(yieldFlow -> Flow.builder().addAll(currentFlow).addAll(yieldFlow).build())
-        .map(f -> new ExecutionPath(edge, visited.add(edge), newTrackSymbols, newSameConstraints, f, endOfPath));
+        .map(f -> new ExecutionPath(edge, newVisited, newTrackSymbols, newSameConstraints, f, endOfPath));
     }
 
     private Optional<JavaFileScannerContext.Location> flowFromThrownException(ExplodedGraph.Edge edge) {
@@ -813,4 +830,100 @@ public class FlowComputation {
     }
   }
 
+
+  /**
+   * Number of steps flow computations may still walk the exploded graph for.
+   */
+  public static final class StepBudget {
+    private int remainingSteps;
+
+    public StepBudget() {
+      this(MAX_FLOW_STEPS);
+    }
+
+    StepBudget(int steps) {
+      this.remainingSteps = steps;
+    }
+
+    boolean exhausted() {
+      return remainingSteps <= 0;
+    }
+  }
+
+  /**
+   * Immutable set of edges of an exploded graph, stored as a bitset of their ids. The bitset is a radix trie whose leaves hold
+   * {@value #LEAF_WORDS} words: adding an edge copies one leaf and the nodes above it, all the other words are shared with the set
+   * it has been added to, and so with the other paths forked from the same path.
+   */
+  static final class EdgeSet {
+    static final EdgeSet EMPTY = new EdgeSet(null, 0);
+
+    private static final int LEAF_WORDS = 4;
+    private static final int LEAF_SHIFT = 8;
+    private static final int BRANCH_SHIFT = 3;
+    private static final int BRANCHES = 1 << BRANCH_SHIFT;
+
+    /**
+     * long[] of {@value #LEAF_WORDS} words at depth 0, Object[] of {@value #BRANCHES} children above, null when empty
+     */
+    @Nullable
+    private final Object root;
+    private final int depth;
+
+    private EdgeSet(@Nullable Object root, int depth) {
+      this.root = root;
+      this.depth = depth;
+    }
+
+    EdgeSet add(ExplodedGraph.Edge edge) {
+      if (contains(edge)) {
+        return this;
+      }
+      int id = edge.id;
+      Object newRoot = root;
+      int newDepth = depth;
+      while (!covers(newDepth, id)) {
+        if (newRoot != null) {
+          Object[] children = new Object[BRANCHES];
+          children[0] = newRoot;
+          newRoot = children;
+        }
+        newDepth++;
+      }
+      return new EdgeSet(add(newRoot, newDepth, id), newDepth);
+    }
+
+    private static Object add(@Nullable Object node, int depth, int id) {
+      if (depth == 0) {
+        long[] words = node == null ? new long[LEAF_WORDS] : ((long[]) node).clone();
+        words[(id >>> 6) & (LEAF_WORDS - 1)] |= 1L << id;
+        return words;
+      }
+      Object[] children = node == null ? new Object[BRANCHES] : ((Object[]) node).clone();
+      int child = childIndex(depth, id);
+      children[child] = add(children[child], depth - 1, id);
+      return children;
+    }
+
+    boolean contains(ExplodedGraph.Edge edge) {
+      int id = edge.id;
+      if (!covers(depth, id)) {
+        return false;
+      }
+      Object node = root;
+      for (int d = depth; d > 0 && node != null; d--) {
+        node = ((Object[]) node)[childIndex(d, id)];
+      }
+      return node != null && (((long[]) node)[(id >>> 6) & (LEAF_WORDS - 1)] & (1L << id)) != 0;
+    }
+
+    private static boolean covers(int depth, int id) {
+      int shift = LEAF_SHIFT + depth * BRANCH_SHIFT;
+      return shift >= Integer.SIZE - 1 || (id >>> shift) == 0;
+    }
+
+    private static int childIndex(int depth, int id) {
+      return (id >>> (LEAF_SHIFT + (depth - 1) * BRANCH_SHIFT)) & (BRANCHES - 1);
+    }
+  }
 }
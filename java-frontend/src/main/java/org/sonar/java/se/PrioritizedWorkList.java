@@ -0,0 +1,156 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import javax.annotation.CheckForNull;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.FlatCFG;
+
+/**
+ * Work list of the {@link ExplodedGraphWalker} for the strategies exploring nodes by priority rather than by order of enqueueing.
+ * Among nodes of same priority, the most recently enqueued one is explored first.
+ */
+abstract class PrioritizedWorkList {
+
+  private static final Comparator<Entry> MOST_RECENT_FIRST = (e1, e2) -> Long.compare(e2.sequence, e1.sequence);
+
+  private long sequence = 0;
+  private int size = 0;
+
+  /**
+   * @return null for the strategies exploring nodes by order of enqueueing
+   */
+  @CheckForNull
+  static PrioritizedWorkList create(ExplorationStrategy strategy, CFG cfg) {
+    switch (strategy) {
+      case REVERSE_POSTORDER:
+        return new ReversePostorder(cfg.flat());
+      case COVERAGE:
+        return new Coverage();
+      default:
+        return null;
+    }
+  }
+
+  void add(ExplodedGraph.Node node) {
+    size++;
+    addEntry(new Entry(node, sequence++));
+  }
+
+  abstract void addEntry(Entry entry);
+
+  ExplodedGraph.Node poll() {
+    size--;
+    return pollEntry().node;
+  }
+
+  abstract Entry pollEntry();
+
+  int size() {
+    return size;
+  }
+
+  static final class Entry {
+    final ExplodedGraph.Node node;
+    final long sequence;
+
+    Entry(ExplodedGraph.Node node, long sequence) {
+      this.node = node;
+      this.sequence = sequence;
+    }
+  }
+
+  /**
+   * Nodes ordered by the reverse postorder rank of their block, then by their index in the block.
+   */
+  private static class ReversePostorder extends PrioritizedWorkList {
+    private final PriorityQueue<Entry> entries;
+
+    ReversePostorder(FlatCFG flatCFG) {
+      entries = new PriorityQueue<>(Comparator.<Entry>comparingInt(e -> flatCFG.reversePostorderRank(e.node.programPoint.block.id()))
+        .thenComparingInt(e -> e.node.programPoint.i)
+        .thenComparing(MOST_RECENT_FIRST));
+    }
+
+    @Override
+    void addEntry(Entry entry) {
+      entries.add(entry);
+    }
+
+    @Override
+    Entry pollEntry() {
+      return entries.poll();
+    }
+  }
+
+  /**
+   * Nodes ordered by the number of times their program point has been explored, kept in buckets by this number. As it only
+   * grows, a node is moved to the bucket of its current number when its bucket is polled.
+   */
+  private static class Coverage extends PrioritizedWorkList {
+    private final Map<ProgramPoint, Integer> explored = new HashMap<>();
+    private final List<PriorityQueue<Entry>> buckets = new ArrayList<>();
+    private int lowestBucket = 0;
+
+    @Override
+    void addEntry(Entry entry) {
+      int count = explored(entry.node.programPoint);
+      bucket(count).add(entry);
+      lowestBucket = Math.min(lowestBucket, count);
+    }
+
+    @Override
+    Entry pollEntry() {
+      while (true) {
+        PriorityQueue<Entry> bucket = bucket(lowestBucket);
+        Entry entry = bucket.poll();
+        if (entry == null) {
+          lowestBucket++;
+        } else {
+          ProgramPoint programPoint = entry.node.programPoint;
+          int count = explored(programPoint);
+          if (count == lowestBucket) {
+            explored.put(programPoint, count + 1);
+            return entry;
+          }
+          // program point explored since the node has been bucketed
+          bucket(count).add(entry);
+        }
+      }
+    }
+
+    private int explored(ProgramPoint programPoint) {
+      return explored.getOrDefault(programPoint, 0);
+    }
+
+    private PriorityQueue<Entry> bucket(int count) {
+      while (buckets.size() <= count) {
+        buckets.add(new PriorityQueue<>(MOST_RECENT_FIRST));
+      }
+      return buckets.get(count);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -122,13 +123,13 @@ public class ProgramState {
 
   private final int constraintSize;
   public static final ProgramState EMPTY_STATE = new ProgramState(
-    PCollections.emptyMap(),
-    PCollections.emptyMap(),
-    PCollections.<SymbolicValue, ConstraintsByDomain>emptyMap()
+    PCollections.emptyTrieMap(),
+    PCollections.emptyTrieMap(),
+    PCollections.<SymbolicValue, ConstraintsByDomain>emptyTrieMap()
       .put(SymbolicValue.NULL_LITERAL, ConstraintsByDomain.empty().put(ObjectConstraint.NULL))
       .put(SymbolicValue.TRUE_LITERAL, ConstraintsByDomain.empty().put(BooleanConstraint.TRUE).put(ObjectConstraint.NOT_NULL))
       .put(SymbolicValue.FALSE_LITERAL, ConstraintsByDomain.empty().put(BooleanConstraint.FALSE).put(ObjectConstraint.NOT_NULL)),
-        PCollections.emptyMap(),
+        PCollections.emptyTrieMap(),
     PCollections.emptyStack(),
     null);
 
@@ -157,7 +158,7 @@ public class ProgramState {
                        PMap<SymbolicValue, ConstraintsByDomain> constraints, PMap<ProgramPoint, Integer> visitedPoints,
                        PStack<SymbolicValueSymbol> stack, SymbolicValue exitSymbolicValue) {
     this.values = values;
-    this.valuesByIndex = PCollections.emptyMap();
+    this.valuesByIndex = PCollections.emptyTrieMap();
     this.references = references;
     this.constraints = constraints;
     this.visitedPoints = visitedPoints;
@@ -262,6 +263,40 @@ public class ProgramState {
       Objects.equals(stack, that.stack);
   }
 
+  /**
+   * A state subsumes another one when exploring it covers everything exploring the other one would: both have the same values,
+   * stack and constraints, except for constraints of generalizable domains, which the other state can have in addition.
+   *
+   * @param generalizableDomain domains whose constraints no reported issue relies on
+   */
+  public boolean subsumes(ProgramState other, Predicate<Class<? extends Constraint>> generalizableDomain) {
+    if (!values.equals(other.values) || !Objects.equals(exitSymbolicValue, other.exitSymbolicValue) || !stack.equals(other.stack)) {
+      return false;
+    }
+    boolean[] subsumes = {true};
+    constraints.forEach((sv, constraintsByDomain) -> {
+      ConstraintsByDomain otherConstraints = other.constraints.get(sv);
+      if (subsumes[0] && constraintsByDomain.stream().anyMatch(c -> otherConstraints == null || !otherConstraints.hasConstraint(c))) {
+        subsumes[0] = false;
+      }
+    });
+    other.constraints.forEach((sv, otherConstraints) -> {
+      ConstraintsByDomain constraintsByDomain = constraints.get(sv);
+      if (subsumes[0] && otherConstraints.stream()
+        .anyMatch(c -> !generalizableDomain.test(c.getClass()) && (constraintsByDomain == null || !constraintsByDomain.hasConstraint(c)))) {
+        subsumes[0] = false;
+      }
+    });
+    return subsumes[0];
+  }
+
+  /**
+   * Hash of the parts two states must have in common for one to subsume the other, see {@link #subsumes}.
+   */
+  public int subsumptionHash() {
+    return Objects.hash(values, stack, exitSymbolicValue);
+  }
+
   @Override
   public int hashCode() {
     if (hashCode == 0) {
@@ -20,10 +20,18 @@
 package org.sonar.java.se;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Lists;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.AnalysisResultsCache;
+import org.sonar.java.ast.visitors.CommentLinesVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.resolve.Flags;
 import org.sonar.java.resolve.JavaSymbol;
@@ -34,23 +42,61 @@ import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
+/**
+ * Explores the methods of a file one after the other. There is no parallel exploration mode: checks are shared
+ * {@link org.sonar.java.se.checks.SECheck} instances keeping per-method state, their callbacks return the program states
+ * to explore (so they can not be buffered and replayed), and behaviors of callees are computed on demand by
+ * {@link BehaviorCache} while exploring callers, relying on the semantic model which is not thread-safe.
+ */
 public class SymbolicExecutionVisitor extends SubscriptionVisitor {
   private static final Logger LOG = Loggers.get(SymbolicExecutionVisitor.class);
 
   @VisibleForTesting
   public BehaviorCache behaviorCache;
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
+  private final ExplorationLimits limits;
+  @Nullable
+  private final ExplorationReport report;
+  @Nullable
+  private final AnalysisResultsCache analysisResultsCache;
+  private long fileDeadline = Long.MAX_VALUE;
+  private Supplier<Set<Integer>> noSonarLines = Collections::emptySet;
 
   public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache) {
-    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners);
+    this(executableScanners, behaviorCache, ExplorationLimits.DEFAULT, null);
+  }
+
+  public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache, ExplorationLimits limits, @Nullable ExplorationReport report) {
+    this(executableScanners, behaviorCache, limits, report, null);
+  }
+
+  /**
+   * @param analysisResultsCache cache of the file being analyzed, whose results are not cached when a time budget stops the
+   *                             exploration of one of its methods, as another analysis could go further
+   */
+  public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache, ExplorationLimits limits, @Nullable ExplorationReport report,
+    @Nullable AnalysisResultsCache analysisResultsCache) {
+    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners, limits);
     this.behaviorCache = behaviorCache;
+    this.limits = limits;
+    this.report = report;
+    this.analysisResultsCache = analysisResultsCache;
   }
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     behaviorCache.setFileContext(this, (SemanticModel) context.getSemanticModel());
+    if (limits.fileTimeoutMillis() > 0) {
+      fileDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limits.fileTimeoutMillis());
+    }
+    noSonarLines = Suppliers.memoize(() -> {
+      CommentLinesVisitor commentLinesVisitor = new CommentLinesVisitor();
+      commentLinesVisitor.analyzeCommentLines(context.getTree());
+      return commentLinesVisitor.noSonarLines();
+    });
     super.scanFile(context);
   }
 
@@ -66,6 +112,9 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
 
   public void execute(MethodTree methodTree) {
     ExplodedGraphWalker walker = getWalker();
+    walker.fileDeadline = fileDeadline;
+    walker.flowsReported = this::flowsReported;
+    long start = System.nanoTime();
     try {
       Symbol.MethodSymbol methodSymbol = methodTree.symbol();
       if (methodCanNotBeOverriden(methodSymbol)) {
@@ -84,9 +133,23 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
       if (walker.methodBehavior != null) {
         walker.methodBehavior.visited();
       }
+      if (analysisResultsCache != null && (walker.stoppedBy == ExplorationLimits.Limit.METHOD_TIME || walker.stoppedBy == ExplorationLimits.Limit.FILE_TIME)) {
+        analysisResultsCache.invalidateCurrentFile();
+      }
+    } finally {
+      ExplodedGraph explodedGraph = walker.explodedGraph();
+      // methods without body and behaviors already computed are not explored
+      if (report != null && explodedGraph != null) {
+        report.add(String.valueOf(context.getInputFile()), methodTree, walker.steps, explodedGraph, System.nanoTime() - start, walker.stoppedBy);
+      }
     }
   }
 
+  private boolean flowsReported(Tree tree) {
+    SyntaxToken firstToken = tree.firstToken();
+    return firstToken == null || !noSonarLines.get().contains(firstToken.line());
+  }
+
   @VisibleForTesting
   protected ExplodedGraphWalker getWalker() {
     return egwFactory.createWalker(behaviorCache, (SemanticModel) context.getSemanticModel());
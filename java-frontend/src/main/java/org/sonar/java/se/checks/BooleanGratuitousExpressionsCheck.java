@@ -23,14 +23,21 @@ import org.sonar.check.Rule;
 import org.sonar.java.se.AlwaysTrueOrFalseExpressionCollector;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Rule(key = "S2589")
 public class BooleanGratuitousExpressionsCheck extends SECheck {
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.emptySet();
+  }
+
   @Override
   public void checkEndOfExecution(CheckerContext context) {
     AlwaysTrueOrFalseExpressionCollector atof = context.alwaysTrueOrFalseExpressions();
@@ -23,8 +23,10 @@ import org.sonar.check.Rule;
 import org.sonar.java.se.AlwaysTrueOrFalseExpressionCollector;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,6 +35,11 @@ public class ConditionalUnreachableCodeCheck extends SECheck {
 
   public static final String MESSAGE = "Change this condition so that it does not always evaluate to \"%s\"";
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.emptySet();
+  }
+
   @Override
   public void checkEndOfExecution(CheckerContext context) {
     AlwaysTrueOrFalseExpressionCollector atof = context.alwaysTrueOrFalseExpressions();
@@ -20,7 +20,9 @@
 package org.sonar.java.se.checks;
 
 import com.google.common.collect.Lists;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
@@ -93,6 +95,11 @@ public class CustomUnclosedResourcesCheck extends SECheck {
   private MethodMatcherCollection openingList;
   private MethodMatcherCollection closingList;
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(CustomResourceConstraint.class);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     AbstractStatementVisitor visitor = new PreStatementVisitor(context);
@@ -22,6 +22,7 @@ package org.sonar.java.se.checks;
 import com.google.common.annotations.VisibleForTesting;
 
 import org.sonar.check.Rule;
+import org.sonar.java.cfg.CFG;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
@@ -40,14 +41,19 @@ import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TypeCastTree;
 import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
 
 import javax.annotation.Nullable;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -57,6 +63,9 @@ public class DivisionByZeroCheck extends SECheck {
   private static final ExceptionalYieldChecker EXCEPTIONAL_YIELD_CHECKER = new ExceptionalYieldChecker(
     "A division by zero will occur when invoking method \"%s()\".");
 
+  // budgets of the flow computations of the issues of the methods being explored, shared by all the paths reaching a division
+  private final Deque<Map<Tree, FlowComputation.StepBudget>> flowBudgets = new ArrayDeque<>();
+
   @VisibleForTesting
   public enum ZeroConstraint implements Constraint {
     ZERO,
@@ -119,6 +128,26 @@ public class DivisionByZeroCheck extends SECheck {
     }
   }
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(ZeroConstraint.class);
+  }
+
+  @Override
+  public void init(MethodTree methodTree, CFG cfg) {
+    flowBudgets.push(new HashMap<>());
+  }
+
+  @Override
+  public void checkEndOfExecution(CheckerContext context) {
+    flowBudgets.pop();
+  }
+
+  @Override
+  public void interruptedExecution(CheckerContext context) {
+    flowBudgets.pop();
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     PreStatementVisitor visitor = new PreStatementVisitor(context);
@@ -264,16 +293,21 @@ public class DivisionByZeroCheck extends SECheck {
       ExpressionTree expression = getDenominator(tree);
       String operation = tree.is(Tree.Kind.REMAINDER, Tree.Kind.REMAINDER_ASSIGNMENT) ? "modulation" : "division";
       String expressionName = expression.is(Tree.Kind.IDENTIFIER) ? ("\"" + ((IdentifierTree) expression).name() + "\"") : "this expression";
+      String message = "Make sure " + expressionName + " can't be zero before doing this " + operation + ".";
+      if (!context.flowsReported(expression)) {
+        context.reportIssue(expression, DivisionByZeroCheck.this, message);
+        return;
+      }
       List<Class<? extends Constraint>> domains = Collections.singletonList(ZeroConstraint.class);
-      Set<Flow> flows = FlowComputation.flow(context.getNode(), denominator, domains, denominatorSymbol).stream()
+      FlowComputation.StepBudget flowBudget = flowBudgets.peek().computeIfAbsent(expression, t -> new FlowComputation.StepBudget());
+      Set<Flow> flows = FlowComputation.flow(context.getNode(), denominator, domains, denominatorSymbol, flowBudget).stream()
         .filter(f -> !f.isEmpty())
         .map(f -> Flow.builder()
           .add(new JavaFileScannerContext.Location("Division by zero.", tree))
           .addAll(f)
           .build())
         .collect(Collectors.toSet());
-      context.reportIssue(expression, DivisionByZeroCheck.this, "Make sure " + expressionName + " can't be zero before doing this " + operation + ".",
-        flows);
+      context.reportIssue(expression, DivisionByZeroCheck.this, message, flows);
     }
 
     private ExpressionTree getDenominator(Tree tree) {
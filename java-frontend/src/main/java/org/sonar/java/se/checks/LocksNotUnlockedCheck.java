@@ -39,6 +39,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @Rule(key = "S2222")
 public class LocksNotUnlockedCheck extends SECheck {
@@ -165,6 +166,11 @@ public class LocksNotUnlockedCheck extends SECheck {
     return ProgramState.isField(expression.symbol());
   }
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(LockConstraint.class);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     final PreStatementVisitor visitor = new PreStatementVisitor(context);
@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import com.google.common.collect.ImmutableSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -116,6 +117,11 @@ public class MinMaxRangeCheck extends SECheck {
     }
   }
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return ImmutableSet.of(NumericalConstraint.class, MinMaxRangeConstraint.class);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState programState = context.getState();
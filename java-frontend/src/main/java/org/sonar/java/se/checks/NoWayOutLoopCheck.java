@@ -28,6 +28,7 @@ import org.sonar.java.matcher.TypeCriteria;
 import org.sonar.java.model.LiteralUtils;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.ProgramState;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
@@ -42,11 +43,13 @@ import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
 import org.sonar.plugins.java.api.tree.WhileStatementTree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Rule(key = "S2189")
 public class NoWayOutLoopCheck extends SECheck {
@@ -60,6 +63,11 @@ public class NoWayOutLoopCheck extends SECheck {
 
   private final Deque<MethodContext> contexts = new LinkedList<>();
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.emptySet();
+  }
+
   @Override
   public void init(MethodTree tree, CFG cfg) {
     MethodContext context = new MethodContext(tree, cfg);
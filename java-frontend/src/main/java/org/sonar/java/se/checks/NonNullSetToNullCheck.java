@@ -22,8 +22,10 @@ package org.sonar.java.se.checks;
 import com.google.common.collect.Lists;
 import java.text.MessageFormat;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.check.Rule;
@@ -32,6 +34,7 @@ import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.resolve.JavaSymbol;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.ProgramState;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.java.se.constraint.ConstraintManager;
 import org.sonar.java.se.constraint.ObjectConstraint;
 import org.sonar.java.se.symbolicvalues.SymbolicValue;
@@ -65,6 +68,11 @@ public class NonNullSetToNullCheck extends SECheck {
 
   private Deque<MethodTree> methodTrees = new ArrayDeque<>();
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.emptySet();
+  }
+
   @Override
   public void init(MethodTree tree, CFG cfg) {
     methodTrees.push(tree);
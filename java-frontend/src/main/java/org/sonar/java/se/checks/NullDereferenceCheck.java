@@ -29,6 +29,7 @@ import org.sonar.java.se.ExplodedGraph;
 import org.sonar.java.se.Flow;
 import org.sonar.java.se.FlowComputation;
 import org.sonar.java.se.ProgramState;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.java.se.constraint.ConstraintManager;
 import org.sonar.java.se.constraint.ObjectConstraint;
 import org.sonar.java.se.symbolicvalues.SymbolicValue;
@@ -46,9 +47,12 @@ import javax.annotation.Nullable;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -77,6 +81,11 @@ public class NullDereferenceCheck extends SECheck {
 
   private Deque<Set<NullDereferenceIssue>> detectedIssues = new ArrayDeque<>();
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.emptySet();
+  }
+
   @Override
   public void init(MethodTree methodTree, CFG cfg) {
     detectedIssues.push(new HashSet<>());
@@ -152,7 +161,7 @@ public class NullDereferenceCheck extends SECheck {
     return programState;
   }
 
-  private void reportIssue(SymbolicValue currentVal, Tree syntaxNode, ExplodedGraph.Node node) {
+  private void reportIssue(SymbolicValue currentVal, Tree syntaxNode, ExplodedGraph.Node node, @Nullable FlowComputation.StepBudget flowBudget) {
     String message = "A \"NullPointerException\" could be thrown; ";
     if (syntaxNode.is(Tree.Kind.MEMBER_SELECT)
         && ((MemberSelectExpressionTree) syntaxNode).expression().is(Tree.Kind.METHOD_INVOCATION)) {
@@ -164,8 +173,12 @@ public class NullDereferenceCheck extends SECheck {
     if (!SymbolicValue.NULL_LITERAL.equals(currentVal)) {
       val = currentVal;
     }
+    if (flowBudget == null) {
+      reportIssue(syntaxNode, message);
+      return;
+    }
     Symbol dereferencedSymbol = dereferencedSymbol(syntaxNode);
-    Set<Flow> flows = FlowComputation.flow(node, val, Lists.newArrayList(ObjectConstraint.class), dereferencedSymbol).stream()
+    Set<Flow> flows = FlowComputation.flow(node, val, Lists.newArrayList(ObjectConstraint.class), dereferencedSymbol, flowBudget).stream()
       .filter(f -> !f.isEmpty())
       .map(f -> addDereferenceMessage(f, syntaxNode))
       .collect(Collectors.toSet());
@@ -235,16 +248,21 @@ public class NullDereferenceCheck extends SECheck {
 
   @Override
   public void checkEndOfExecution(CheckerContext context) {
-    reportIssues();
+    reportIssues(context);
   }
 
   @Override
   public void interruptedExecution(CheckerContext context) {
-    reportIssues();
+    reportIssues(context);
   }
 
-  private void reportIssues() {
+  private void reportIssues(CheckerContext context) {
     Set<NullDereferenceIssue> issues = detectedIssues.pop();
-    issues.forEach(issue -> reportIssue(issue.symbolicValue, issue.tree, issue.node));
+    // a dereference reached by many paths is a single issue: the computation of its flows shares a single budget
+    Map<Tree, FlowComputation.StepBudget> flowBudgets = new HashMap<>();
+    issues.forEach(issue -> {
+      FlowComputation.StepBudget flowBudget = context.flowsReported(issue.tree) ? flowBudgets.computeIfAbsent(issue.tree, t -> new FlowComputation.StepBudget()) : null;
+      reportIssue(issue.symbolicValue, issue.tree, issue.node, flowBudget);
+    });
   }
 }
@@ -34,6 +34,7 @@ import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.Collections;
+import java.util.Set;
 
 @Rule(key = "S2689")
 public class ObjectOutputStreamCheck extends SECheck {
@@ -51,6 +52,11 @@ public class ObjectOutputStreamCheck extends SECheck {
     }
   }
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(FileOutputStreamAppendConstraint.class);
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState programState = context.getState();
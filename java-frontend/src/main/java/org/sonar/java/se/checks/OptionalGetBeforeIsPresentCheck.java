@@ -23,6 +23,7 @@ import com.google.common.base.Preconditions;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.matcher.MethodMatcher;
@@ -74,6 +75,11 @@ public class OptionalGetBeforeIsPresentCheck extends SECheck {
     return MethodMatcher.create().typeDefinition("java.util.Optional").name(methodName);
   }
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(OptionalConstraint.class);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     PreStatementVisitor visitor = new PreStatementVisitor(this, context);
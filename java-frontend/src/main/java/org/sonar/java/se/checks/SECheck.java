@@ -23,6 +23,7 @@ import org.sonar.java.cfg.CFG;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
 import org.sonar.java.se.ProgramState;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.java.se.constraint.ConstraintManager;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -34,11 +35,23 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
 
 public abstract class SECheck implements JavaFileScanner {
 
   protected Set<SEIssue> issues = new HashSet<>();
 
+  /**
+   * Domains of the constraints this check reads to report issues. Constraints of other check-specific domains can be dropped
+   * when program states are merged at join points.
+   *
+   * @return null when the check can read constraints of any domain
+   */
+  @CheckForNull
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return null;
+  }
+
   public void init(MethodTree methodTree, CFG cfg) {
 
   }
@@ -82,6 +82,11 @@ public class StreamConsumedCheck extends SECheck {
     return MethodMatcher.create().typeDefinition("java.util.stream.BaseStream").name(methodName);
   }
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(StreamPipelineConstraint.class);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     if (syntaxNode.is(Tree.Kind.METHOD_REFERENCE)) {
@@ -24,6 +24,7 @@ import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
 import org.sonar.java.se.FlowComputation;
 import org.sonar.java.se.ProgramState;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.java.se.constraint.ConstraintManager;
 import org.sonar.java.se.symbolicvalues.SymbolicValue;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -40,6 +41,11 @@ import static org.sonar.java.se.checks.StreamConsumedCheck.StreamPipelineConstra
 @Rule(key = "S3958")
 public class StreamNotConsumedCheck extends SECheck {
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(StreamConsumedCheck.StreamPipelineConstraint.class);
+  }
+
   @Override
   public void checkEndOfExecutionPath(CheckerContext context, ConstraintManager constraintManager) {
     if (context.getState().exitValue() instanceof SymbolicValue.ExceptionalSymbolicValue) {
@@ -132,6 +132,11 @@ public class UnclosedResourcesCheck extends SECheck {
     MethodMatcher.create().typeDefinition("java.nio.file.FileSystems").name("getDefault").withoutParameter()
   );
 
+  @Override
+  public Set<Class<? extends Constraint>> observedConstraintDomains() {
+    return Collections.singleton(ResourceConstraint.class);
+  }
+
   @Override
   public void init(MethodTree methodTree, CFG cfg) {
     this.visitedMethodOwnerType = methodTree.symbol().owner().type();
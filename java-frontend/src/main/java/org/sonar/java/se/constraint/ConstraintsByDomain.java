@@ -19,6 +19,8 @@
  */
 package org.sonar.java.se.constraint;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -31,6 +33,11 @@ public class ConstraintsByDomain {
   private final PMap<Class<? extends Constraint>, Constraint> constraintPMap;
 
   private static final ConstraintsByDomain EMPTY = new ConstraintsByDomain(PCollections.emptyMap());
+  /**
+   * Most symbolic values hold a single constraint, which is usually a constant of an enum (NULL, NOT_NULL, TRUE...): such
+   * constraints are shared by all the program states instead of being allocated again on each transition.
+   */
+  private static final Map<Constraint, ConstraintsByDomain> SINGLE_ENUM_CONSTRAINTS = new ConcurrentHashMap<>();
 
   private ConstraintsByDomain(PMap<Class<? extends Constraint>, Constraint> constraintPMap) {
     this.constraintPMap = constraintPMap;
@@ -66,6 +73,9 @@ public class ConstraintsByDomain {
   }
 
   public ConstraintsByDomain put(Constraint constraint) {
+    if (constraintPMap.isEmpty() && constraint instanceof Enum) {
+      return SINGLE_ENUM_CONSTRAINTS.computeIfAbsent(constraint, c -> new ConstraintsByDomain(constraintPMap.put(c.getClass(), c)));
+    }
     PMap<Class<? extends Constraint>, Constraint> newConstraints = constraintPMap.put(constraint.getClass(), constraint);
     return newConstraints == constraintPMap ? this : new ConstraintsByDomain(newConstraints);
   }
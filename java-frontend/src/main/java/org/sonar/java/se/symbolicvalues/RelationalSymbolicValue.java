@@ -37,8 +37,10 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -119,10 +121,11 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     }
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     newRelations.add(this);
-    newRelations.addAll(transitiveRelations(knownRelations));
+    RelationsByOperand knownRelationsByOperand = new RelationsByOperand(knownRelations);
+    newRelations.addAll(transitiveRelations(knownRelations.size(), knownRelationsByOperand));
 
     boolean unfulfilled = newRelations.stream()
-      .map(r -> r.resolveRelationState(knownRelations))
+      .map(r -> r.resolveRelationState(knownRelationsByOperand))
       .anyMatch(RelationState.UNFULFILLED::equals);
 
     if (unfulfilled) {
@@ -210,14 +213,21 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
 
   @VisibleForTesting
   RelationState resolveRelationState(Set<RelationalSymbolicValue> knownRelations) {
+    return resolveRelationState(new RelationsByOperand(knownRelations));
+  }
+
+  private RelationState resolveRelationState(RelationsByOperand knownRelations) {
     if (hasSameOperand()) {
       return relationStateForSameOperand();
     }
-
-    return knownRelations.stream()
-      .map(r -> r.implies(this))
-      .filter(RelationState::isDetermined)
-      .findAny().orElse(RelationState.UNDETERMINED);
+    // only relations on the same operands can determine this relation, they are all indexed by the left operand
+    for (RelationalSymbolicValue knownRelation : knownRelations.withOperand(leftOp)) {
+      RelationState relationState = knownRelation.implies(this);
+      if (relationState.isDetermined()) {
+        return relationState;
+      }
+    }
+    return RelationState.UNDETERMINED;
   }
 
   private RelationState relationStateForSameOperand() {
@@ -250,28 +260,43 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
 
   @VisibleForTesting
   Set<RelationalSymbolicValue> transitiveRelations(Set<RelationalSymbolicValue> knownRelations) {
+    return transitiveRelations(knownRelations.size(), new RelationsByOperand(knownRelations));
+  }
+
+  private Set<RelationalSymbolicValue> transitiveRelations(int knownRelationsSize, RelationsByOperand knownRelations) {
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     Deque<RelationalSymbolicValue> workList = new ArrayDeque<>();
     int iterations = 0;
     workList.add(this);
     while (!workList.isEmpty()) {
-      int relationSize = newRelations.size() * knownRelations.size();
+      int relationSize = newRelations.size() * knownRelationsSize;
       if (relationSize > MAX_DEDUCED_RELATIONS || iterations > MAX_ITERATIONS) {
         // safety mechanism in case of an error in the algorithm
         throw new RelationalSymbolicValue.TransitiveRelationExceededException("Used relations: " + relationSize + ". Iterations " + iterations);
       }
       iterations++;
       RelationalSymbolicValue relation = workList.pop();
-      for (RelationalSymbolicValue knownRelation : knownRelations) {
-        RelationalSymbolicValue r = relation.deduceTransitiveOrSimplified(knownRelation);
-        if (r != null && !knownRelations.contains(r) && newRelations.add(r)) {
-          workList.add(r);
+      // relations can only be combined or simplified with relations sharing one of their operands
+      for (RelationalSymbolicValue knownRelation : knownRelations.withOperand(relation.leftOp)) {
+        deduce(relation, knownRelation, knownRelations, newRelations, workList);
+      }
+      for (RelationalSymbolicValue knownRelation : knownRelations.withOperand(relation.rightOp)) {
+        if (!knownRelation.hasOperand(relation.leftOp)) {
+          deduce(relation, knownRelation, knownRelations, newRelations, workList);
         }
       }
     }
     return newRelations;
   }
 
+  private static void deduce(RelationalSymbolicValue relation, RelationalSymbolicValue knownRelation, RelationsByOperand knownRelations,
+                             Set<RelationalSymbolicValue> newRelations, Deque<RelationalSymbolicValue> workList) {
+    RelationalSymbolicValue r = relation.deduceTransitiveOrSimplified(knownRelation);
+    if (r != null && !knownRelations.contains(r) && newRelations.add(r)) {
+      workList.add(r);
+    }
+  }
+
   @VisibleForTesting
   RelationalSymbolicValue deduceTransitiveOrSimplified(RelationalSymbolicValue other) {
     RelationalSymbolicValue result = simplify(other);
@@ -441,6 +466,32 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     return symbol != null ? ("(" + symbol.toString() + ")") : "";
   }
 
+  /**
+   * Known relations indexed by their operands.
+   */
+  private static class RelationsByOperand {
+    private final Set<RelationalSymbolicValue> relations;
+    private final Map<SymbolicValue, List<RelationalSymbolicValue>> relationsByOperand = new HashMap<>();
+
+    RelationsByOperand(Set<RelationalSymbolicValue> relations) {
+      this.relations = relations;
+      for (RelationalSymbolicValue relation : relations) {
+        relationsByOperand.computeIfAbsent(relation.leftOp, k -> new ArrayList<>()).add(relation);
+        if (!relation.hasSameOperand()) {
+          relationsByOperand.computeIfAbsent(relation.rightOp, k -> new ArrayList<>()).add(relation);
+        }
+      }
+    }
+
+    boolean contains(RelationalSymbolicValue relation) {
+      return relations.contains(relation);
+    }
+
+    List<RelationalSymbolicValue> withOperand(SymbolicValue operand) {
+      return relationsByOperand.getOrDefault(operand, Collections.emptyList());
+    }
+  }
+
   public static class TransitiveRelationExceededException extends RuntimeException {
     public TransitiveRelationExceededException(String msg) {
       super("Number of transitive relations exceeded!" + msg);
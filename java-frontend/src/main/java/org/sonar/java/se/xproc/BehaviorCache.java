@@ -21,6 +21,14 @@ package org.sonar.java.se.xproc;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -42,7 +50,20 @@ public class BehaviorCache {
   private  SemanticModel semanticModel;
   @VisibleForTesting
   public final Map<String, MethodBehavior> behaviors = new LinkedHashMap<>();
-  private final Map<String, MethodBehavior> bytecodeBehaviors = new LinkedHashMap<>();
+  private final Map<String, MethodBehavior> bytecodeBehaviors = new HashMap<>();
+  // complete bytecode behaviors counted in the budget, in access order for least recently used behaviors to be evicted first
+  private final Map<String, MethodBehavior> evictableBytecodeBehaviors = new LinkedHashMap<>(16, 0.75f, true);
+  private int maxCachedYields = 0;
+  private int cachedYields = 0;
+  private int hits = 0;
+  private int misses = 0;
+  private int evictions = 0;
+  @Nullable
+  private BehaviorStore behaviorStore;
+  // classes each bytecode behavior has been computed from, and classes used by the bytecode behaviors being computed
+  private final Map<String, Set<String>> bytecodeDependencies = new HashMap<>();
+  private final Deque<Set<String>> dependenciesBeingComputed = new ArrayDeque<>();
+  private final Map<String, String> classHashes = new HashMap<>();
 
   // methods known to be well covered using bytecode-generated behavior
   private static final Set<String> WHITELIST = ImmutableSet.of(
@@ -116,6 +137,43 @@ public class BehaviorCache {
     behaviors.clear();
   }
 
+  /**
+   * Persist behaviors computed from bytecode in the given directory, and reuse them in later analyses as long as the class files
+   * they have been computed from are unchanged.
+   */
+  public void useBehaviorStore(File directory) {
+    // behaviors computed without cross-file analysis ignore the behaviors of most of the invoked methods
+    behaviorStore = new BehaviorStore(new File(directory, crossFileEnabled ? "behaviors-xfile.json" : "behaviors.json"));
+  }
+
+  /**
+   * Bound the memory used by behaviors computed from bytecode, which are otherwise kept for the whole analysis: when more than the
+   * given number of yields are cached, least recently used behaviors are evicted and computed again when needed.
+   *
+   * @param maxCachedYields maximum number of yields to keep, 0 for no limit
+   */
+  public void setMaxCachedYields(int maxCachedYields) {
+    this.maxCachedYields = maxCachedYields;
+  }
+
+  public int hits() {
+    return hits;
+  }
+
+  public int misses() {
+    return misses;
+  }
+
+  public int evictions() {
+    return evictions;
+  }
+
+  public void saveBehaviorStore() {
+    if (behaviorStore != null) {
+      behaviorStore.save();
+    }
+  }
+
   public MethodBehavior methodBehaviorForSymbol(Symbol.MethodSymbol symbol) {
     String signature = symbol.signature();
     boolean varArgs = ((JavaSymbol.MethodJavaSymbol) symbol).isVarArgs();
@@ -155,10 +213,98 @@ public class BehaviorCache {
       return null;
     }
 
-    if (!bytecodeBehaviors.containsKey(signature)) {
+    MethodBehavior methodBehavior = bytecodeBehaviors.get(signature);
+    if (methodBehavior != null) {
+      hits++;
+      // only marks the behavior as recently used
+      evictableBytecodeBehaviors.get(signature);
+    } else {
+      misses++;
+      methodBehavior = loadBytecodeBehavior(signature);
+    }
+    Set<String> dependencies = dependenciesBeingComputed.peek();
+    if (dependencies != null) {
+      dependencies.addAll(bytecodeDependencies.getOrDefault(signature, Collections.singleton(ownerClass(signature))));
+    }
+    return methodBehavior;
+  }
+
+  @CheckForNull
+  private MethodBehavior loadBytecodeBehavior(String signature) {
+    if (behaviorStore == null) {
+      new BytecodeEGWalker(this, semanticModel).getMethodBehavior(signature, classLoader);
+    } else if (!restoreBytecodeBehavior(signature)) {
+      computeBytecodeBehavior(signature);
+    }
+    MethodBehavior methodBehavior = bytecodeBehaviors.get(signature);
+    // behaviors which are not complete once computed never will be: they are kept for not being computed again, but they are
+    // not counted as they can not be evicted
+    if (methodBehavior != null && methodBehavior.isComplete() && maxCachedYields > 0) {
+      evictableBytecodeBehaviors.put(signature, methodBehavior);
+      cachedYields += weight(methodBehavior);
+      evictBytecodeBehaviors();
+    }
+    return methodBehavior;
+  }
+
+  /**
+   * Evict least recently used behaviors until the yields kept in memory fit in the budget.
+   */
+  private void evictBytecodeBehaviors() {
+    Iterator<MethodBehavior> iterator = evictableBytecodeBehaviors.values().iterator();
+    while (cachedYields > maxCachedYields && iterator.hasNext()) {
+      MethodBehavior methodBehavior = iterator.next();
+      iterator.remove();
+      bytecodeBehaviors.remove(methodBehavior.signature());
+      bytecodeDependencies.remove(methodBehavior.signature());
+      cachedYields -= weight(methodBehavior);
+      evictions++;
+    }
+  }
+
+  private static int weight(MethodBehavior methodBehavior) {
+    return 1 + methodBehavior.yields.size();
+  }
+
+  private boolean restoreBytecodeBehavior(String signature) {
+    MethodBehavior methodBehavior = behaviorStore.get(signature, this::classHash);
+    if (methodBehavior == null) {
+      return false;
+    }
+    bytecodeBehaviors.put(signature, methodBehavior);
+    Set<String> dependencies = new HashSet<>();
+    behaviorStore.dependencies(signature).forEach(dependencies::add);
+    bytecodeDependencies.put(signature, dependencies);
+    return true;
+  }
+
+  private void computeBytecodeBehavior(String signature) {
+    Set<String> dependencies = new HashSet<>();
+    dependencies.add(ownerClass(signature));
+    dependenciesBeingComputed.push(dependencies);
+    try {
       new BytecodeEGWalker(this, semanticModel).getMethodBehavior(signature, classLoader);
+    } finally {
+      dependenciesBeingComputed.pop();
     }
-    return bytecodeBehaviors.get(signature);
+    bytecodeDependencies.put(signature, dependencies);
+    MethodBehavior methodBehavior = bytecodeBehaviors.get(signature);
+    if (methodBehavior != null && methodBehavior.isComplete()) {
+      Map<String, String> hashes = new HashMap<>();
+      dependencies.forEach(className -> hashes.put(className, classHash(className)));
+      behaviorStore.put(methodBehavior, hashes);
+    }
+  }
+
+  private static String ownerClass(String signature) {
+    return signature.substring(0, signature.indexOf('#'));
+  }
+
+  private String classHash(String className) {
+    return classHashes.computeIfAbsent(className, name -> {
+      byte[] bytes = classLoader.getBytesForClass(name);
+      return bytes == null ? "" : Hashing.sha256().hashBytes(bytes).toString();
+    });
   }
 
   /**
@@ -174,7 +320,7 @@ public class BehaviorCache {
     if (mb != null) {
       return mb;
     }
-    // check for bytecode signatures
+    // check for bytecode signatures, without marking them as recently used
     return bytecodeBehaviors.get(signature);
   }
 
@@ -0,0 +1,333 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.se.constraint.Constraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+
+/**
+ * Behaviors of library methods computed from bytecode, persisted between analyses.
+ *
+ * A stored behavior records the hash of every class file it has been computed from: the class declaring the method and the
+ * classes of the methods whose behaviors have been used while exploring it. It is reused only as long as all these class files
+ * are unchanged, so the same store can be shared by analyses of projects having different classpaths.
+ * Only behaviors whose constraints are enum constants are stored, other constraints can not be restored safely.
+ *
+ * Saving merges the behaviors used during the analysis into the content of the store on disk, so that entries written by
+ * concurrent analyses are kept. Each save is a new generation of the store: behaviors record the last generation which used
+ * them, and the least recently used ones are evicted when the store exceeds its maximum size.
+ */
+class BehaviorStore {
+
+  private static final Logger LOG = Loggers.get(BehaviorStore.class);
+  private static final int FORMAT_VERSION = 2;
+  private static final int MAX_STORED_BEHAVIORS = 50_000;
+
+  private final File file;
+  private final int maxStoredBehaviors;
+  private Map<String, StoredBehavior> storedBehaviors;
+  private long generation;
+  private final Set<String> usedSignatures = new HashSet<>();
+  private boolean modified = false;
+  private int reusedBehaviors = 0;
+
+  BehaviorStore(File file) {
+    this(file, MAX_STORED_BEHAVIORS);
+  }
+
+  @VisibleForTesting
+  BehaviorStore(File file, int maxStoredBehaviors) {
+    this.file = file;
+    this.maxStoredBehaviors = maxStoredBehaviors;
+    StoredBehaviors content = load(file);
+    this.storedBehaviors = content.behaviors;
+    this.generation = content.generation;
+  }
+
+  private static StoredBehaviors load(File file) {
+    if (!file.isFile()) {
+      return new StoredBehaviors();
+    }
+    try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      StoredBehaviors content = new Gson().fromJson(reader, StoredBehaviors.class);
+      if (content == null || content.formatVersion != FORMAT_VERSION || !analyzerVersion().equals(content.analyzerVersion)) {
+        return new StoredBehaviors();
+      }
+      return content;
+    } catch (IOException | JsonParseException e) {
+      LOG.debug("Unable to read method behaviors '{}': {}", file, e.getMessage());
+      return new StoredBehaviors();
+    }
+  }
+
+  /**
+   * @param classHash hash of the content of a class file, from the name of the class
+   * @return the stored behavior of the method, or null if unknown or computed from class files which have changed since
+   */
+  @CheckForNull
+  MethodBehavior get(String signature, Function<String, String> classHash) {
+    StoredBehavior storedBehavior = storedBehaviors.get(signature);
+    if (storedBehavior == null || storedBehavior.classHashes.entrySet().stream().anyMatch(e -> !e.getValue().equals(classHash.apply(e.getKey())))) {
+      return null;
+    }
+    MethodBehavior methodBehavior = storedBehavior.toMethodBehavior(signature);
+    if (methodBehavior != null) {
+      usedSignatures.add(signature);
+      reusedBehaviors++;
+    }
+    return methodBehavior;
+  }
+
+  /**
+   * @return names of the classes the stored behavior has been computed from, or null if the method is unknown
+   */
+  @CheckForNull
+  Iterable<String> dependencies(String signature) {
+    StoredBehavior storedBehavior = storedBehaviors.get(signature);
+    return storedBehavior == null ? null : storedBehavior.classHashes.keySet();
+  }
+
+  void put(MethodBehavior methodBehavior, Map<String, String> classHashes) {
+    StoredBehavior storedBehavior = StoredBehavior.from(methodBehavior, classHashes);
+    if (storedBehavior != null) {
+      storedBehaviors.put(methodBehavior.signature(), storedBehavior);
+      usedSignatures.add(methodBehavior.signature());
+      modified = true;
+    }
+  }
+
+  void save() {
+    LOG.debug("{} method behaviors reused from '{}'", reusedBehaviors, file);
+    if (!modified && usedSignatures.isEmpty()) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      // the store can be shared by concurrent analyses: merge with what they have written since it has been loaded
+      StoredBehaviors content = load(file);
+      content.generation = Math.max(content.generation, generation) + 1;
+      for (String signature : usedSignatures) {
+        StoredBehavior storedBehavior = storedBehaviors.get(signature);
+        storedBehavior.lastUsedGeneration = content.generation;
+        content.behaviors.put(signature, storedBehavior);
+      }
+      evictLeastRecentlyUsed(content.behaviors);
+      // written in a temporary file first, so that concurrent analyses never read a partially written store
+      Path tempFile = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        new Gson().toJson(content, writer);
+      }
+      Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      storedBehaviors = content.behaviors;
+      generation = content.generation;
+      usedSignatures.clear();
+      modified = false;
+    } catch (IOException e) {
+      LOG.warn("Unable to write method behaviors '{}': {}", file, e.getMessage());
+    }
+  }
+
+  private void evictLeastRecentlyUsed(Map<String, StoredBehavior> behaviors) {
+    int excess = behaviors.size() - maxStoredBehaviors;
+    if (excess <= 0) {
+      return;
+    }
+    behaviors.entrySet().stream()
+      .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsedGeneration))
+      .limit(excess)
+      .map(Map.Entry::getKey)
+      .collect(Collectors.toList())
+      .forEach(behaviors::remove);
+  }
+
+  private static String analyzerVersion() {
+    // behaviors computed by another version of the analyzer can differ
+    String version = BehaviorStore.class.getPackage().getImplementationVersion();
+    return version == null ? "" : version;
+  }
+
+  private static class StoredBehaviors {
+    private int formatVersion = FORMAT_VERSION;
+    private String analyzerVersion = analyzerVersion();
+    private long generation = 0;
+    private Map<String, StoredBehavior> behaviors = new HashMap<>();
+  }
+
+  private static class StoredBehavior {
+    private long lastUsedGeneration;
+    private Map<String, String> classHashes;
+    private boolean varArgs;
+    private List<String> declaredExceptions;
+    private List<StoredYield> yields = new ArrayList<>();
+
+    @CheckForNull
+    static StoredBehavior from(MethodBehavior methodBehavior, Map<String, String> classHashes) {
+      StoredBehavior storedBehavior = new StoredBehavior();
+      storedBehavior.classHashes = classHashes;
+      storedBehavior.varArgs = methodBehavior.isMethodVarArgs();
+      storedBehavior.declaredExceptions = methodBehavior.getDeclaredExceptions();
+      for (MethodYield yield : methodBehavior.yields) {
+        StoredYield storedYield = StoredYield.from(yield);
+        if (storedYield == null) {
+          return null;
+        }
+        storedBehavior.yields.add(storedYield);
+      }
+      return storedBehavior;
+    }
+
+    @CheckForNull
+    MethodBehavior toMethodBehavior(String signature) {
+      MethodBehavior methodBehavior = new MethodBehavior(signature, varArgs);
+      methodBehavior.setDeclaredExceptions(declaredExceptions);
+      for (StoredYield storedYield : yields) {
+        MethodYield yield = storedYield.toMethodYield(methodBehavior);
+        if (yield == null) {
+          return null;
+        }
+        methodBehavior.yields.add(yield);
+      }
+      methodBehavior.completed();
+      return methodBehavior;
+    }
+  }
+
+  private static class StoredYield {
+    private boolean exceptional;
+    @Nullable
+    private String exceptionType;
+    private int resultIndex;
+    @Nullable
+    private List<String> resultConstraint;
+    private List<List<String>> parametersConstraints = new ArrayList<>();
+
+    @CheckForNull
+    static StoredYield from(MethodYield yield) {
+      StoredYield storedYield = new StoredYield();
+      if (yield.getClass() == ExceptionalYield.class) {
+        storedYield.exceptional = true;
+        storedYield.exceptionType = ((ExceptionalYield) yield).exceptionTypeName();
+      } else if (yield.getClass() == HappyPathYield.class) {
+        HappyPathYield happyPathYield = (HappyPathYield) yield;
+        storedYield.resultIndex = happyPathYield.resultIndex();
+        ConstraintsByDomain resultConstraint = happyPathYield.resultConstraint();
+        if (resultConstraint != null) {
+          storedYield.resultConstraint = constraintNames(resultConstraint);
+          if (storedYield.resultConstraint == null) {
+            return null;
+          }
+        }
+      } else {
+        // yields created by checks refer to the node and the symbolic value having caused them
+        return null;
+      }
+      for (ConstraintsByDomain constraints : yield.parametersConstraints) {
+        List<String> names = constraintNames(constraints);
+        if (names == null) {
+          return null;
+        }
+        storedYield.parametersConstraints.add(names);
+      }
+      return storedYield;
+    }
+
+    @CheckForNull
+    MethodYield toMethodYield(MethodBehavior methodBehavior) {
+      MethodYield yield;
+      if (exceptional) {
+        ExceptionalYield exceptionalYield = new ExceptionalYield(methodBehavior);
+        exceptionalYield.setExceptionType(exceptionType);
+        yield = exceptionalYield;
+      } else {
+        HappyPathYield happyPathYield = new HappyPathYield(methodBehavior);
+        ConstraintsByDomain constraints = null;
+        if (resultConstraint != null) {
+          constraints = constraints(resultConstraint);
+          if (constraints == null) {
+            return null;
+          }
+        }
+        happyPathYield.setResult(resultIndex, constraints);
+        yield = happyPathYield;
+      }
+      for (List<String> names : parametersConstraints) {
+        ConstraintsByDomain constraints = constraints(names);
+        if (constraints == null) {
+          return null;
+        }
+        yield.parametersConstraints.add(constraints);
+      }
+      return yield;
+    }
+
+    @CheckForNull
+    private static List<String> constraintNames(ConstraintsByDomain constraints) {
+      List<String> names = new ArrayList<>();
+      constraints.forEach((domain, constraint) -> {
+        if (constraint instanceof Enum) {
+          Enum<?> constant = (Enum<?>) constraint;
+          names.add(constant.getDeclaringClass().getName() + "#" + constant.name());
+        }
+      });
+      return names.size() == constraints.stream().count() ? names : null;
+    }
+
+    @CheckForNull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ConstraintsByDomain constraints(List<String> names) {
+      ConstraintsByDomain constraints = ConstraintsByDomain.empty();
+      for (String name : names) {
+        int separator = name.indexOf('#');
+        try {
+          Class enumClass = Class.forName(name.substring(0, separator), false, BehaviorStore.class.getClassLoader());
+          constraints = constraints.put((Constraint) Enum.valueOf(enumClass, name.substring(separator + 1)));
+        } catch (ClassNotFoundException | IllegalArgumentException | ClassCastException e) {
+          LOG.debug("Unable to restore constraint '{}': {}", name, e.getMessage());
+          return null;
+        }
+      }
+      return constraints;
+    }
+  }
+}
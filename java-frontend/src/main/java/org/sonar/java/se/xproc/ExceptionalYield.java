@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -57,10 +58,15 @@ public class ExceptionalYield extends MethodYield {
       .distinct();
   }
 
-  public void setExceptionType(String exceptionType) {
+  public void setExceptionType(@Nullable String exceptionType) {
     this.exceptionType = exceptionType;
   }
 
+  @CheckForNull
+  String exceptionTypeName() {
+    return exceptionType;
+  }
+
   public Type exceptionType(SemanticModel semanticModel) {
     if (exceptionType == null) {
       return Symbols.unknownType;
@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+class A {
+
+  int loops(List<String> list, int n) {
+    int result = 0;
+    for (String s : list) {
+      if (s == null) {
+        continue;
+      }
+      result += s.length();
+    }
+    while (n > 0) {
+      n--;
+      if (n % 2 == 0) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  Object branches(Object o, boolean b1, boolean b2, int i) {
+    Object result = null;
+    if (b1 && o != null) {
+      result = o;
+    } else if (b2 || o == null) {
+      result = new Object();
+    }
+    switch (i) {
+      case 0:
+        result = null;
+        break;
+      case 1:
+        return o;
+      default:
+        break;
+    }
+    return result;
+  }
+
+  int exceptions(InputStream stream) {
+    int read = 0;
+    try {
+      read = stream.read();
+      if (read < 0) {
+        throw new IllegalStateException();
+      }
+    } catch (IOException e) {
+      read = -1;
+    } finally {
+      read++;
+    }
+    return read;
+  }
+}
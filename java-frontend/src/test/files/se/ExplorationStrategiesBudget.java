@@ -0,0 +1,58 @@
+abstract class A {
+
+  void paths() {
+    Object o1 = null;
+    Object o2 = null;
+    Object o3 = null;
+    Object o4 = null;
+    Object o5 = null;
+    Object o6 = null;
+    Object o7 = null;
+    Object o8 = null;
+    Object o9 = null;
+    Object o10 = null;
+    Object o11 = null;
+    Object o12 = null;
+    if (condition()) {
+      o1 = new Object();
+    }
+    if (condition()) {
+      o2 = new Object();
+    }
+    if (condition()) {
+      o3 = new Object();
+    }
+    if (condition()) {
+      o4 = new Object();
+    }
+    if (condition()) {
+      o5 = new Object();
+    }
+    if (condition()) {
+      o6 = new Object();
+    }
+    if (condition()) {
+      o7 = new Object();
+    }
+    if (condition()) {
+      o8 = new Object();
+    }
+    if (condition()) {
+      o9 = new Object();
+    }
+    if (condition()) {
+      o10 = new Object();
+    }
+    if (condition()) {
+      o11 = new Object();
+    }
+    if (condition()) {
+      o12 = new Object();
+    }
+    end(o1, o2, o3, o4, o5, o6, o7, o8, o9, o10, o11, o12);
+  }
+
+  abstract boolean condition();
+
+  abstract void end(Object... objects);
+}
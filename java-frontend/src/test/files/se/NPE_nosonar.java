@@ -0,0 +1,14 @@
+abstract class A {
+
+  void reported(Object o) {
+    if (o == null) { // flow@reported {{Implies 'o' is null.}}
+      o.toString(); // Noncompliant [[flows=reported]] flow@reported
+    }
+  }
+
+  void suppressed(Object o) {
+    if (o == null) {
+      o /* NOSONAR */ .toString(); // Noncompliant [[secondary=]] flows are not computed for suppressed issues
+    }
+  }
+}
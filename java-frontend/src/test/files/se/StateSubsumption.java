@@ -0,0 +1,25 @@
+import java.util.concurrent.locks.Lock;
+
+abstract class A {
+
+  void locks(Lock l1, Lock l2, Lock l3) {
+    l1.toString();
+    l2.toString();
+    l3.toString();
+    boolean b1 = condition();
+    if (b1) {
+      l1.lock();
+    }
+    boolean b2 = condition();
+    if (b2) {
+      l2.lock();
+    }
+    boolean b3 = condition();
+    if (b3) {
+      l3.lock();
+    }
+    l1.toString();
+  }
+
+  abstract boolean condition();
+}
@@ -0,0 +1,25 @@
+import java.util.stream.Stream;
+
+abstract class A {
+
+  void streams(Stream<String> s1, Stream<String> s2, Stream<String> s3) {
+    s1.toString();
+    s2.toString();
+    s3.toString();
+    boolean b1 = condition();
+    if (b1) {
+      s1.sorted();
+    }
+    boolean b2 = condition();
+    if (b2) {
+      s2.sorted();
+    }
+    boolean b3 = condition();
+    if (b3) {
+      s3.sorted();
+    }
+    s1.toString();
+  }
+
+  abstract boolean condition();
+}
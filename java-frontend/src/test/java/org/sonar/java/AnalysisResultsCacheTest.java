@@ -0,0 +1,197 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnalysisResultsCacheTest {
+
+  private static final RuleKey RULE_KEY = RuleKey.of("repo", "ClassIssue");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File workDir;
+
+  @Before
+  public void setUp() throws IOException {
+    workDir = temporaryFolder.newFolder();
+    ClassIssueCheck.scannedFiles.clear();
+  }
+
+  @Test
+  public void issues_of_unchanged_files_are_replayed() {
+    InputFile unchanged = inputFile("A.java", "class A {}");
+    InputFile changed = inputFile("B.java", "class B {}");
+
+    SensorContextTester context = analyze(true, unchanged, changed);
+    assertThat(ClassIssueCheck.scannedFiles).containsExactly("A.java", "B.java");
+    assertThat(context.allIssues()).hasSize(2);
+    assertThat(new File(workDir, "sonar-java-cache").listFiles()).hasSize(1);
+
+    ClassIssueCheck.scannedFiles.clear();
+    context = analyze(true, unchanged, inputFile("B.java", "class B {}\nclass C {}"));
+    assertThat(ClassIssueCheck.scannedFiles).containsExactly("B.java");
+    List<Issue> issues = new ArrayList<>(context.allIssues());
+    assertThat(issues).hasSize(3);
+    Issue replayedIssue = issues.get(0);
+    assertThat(replayedIssue.ruleKey()).isEqualTo(RULE_KEY);
+    assertThat(replayedIssue.primaryLocation().inputComponent()).isEqualTo(unchanged);
+    assertThat(replayedIssue.primaryLocation().message()).isEqualTo("class");
+    assertThat(replayedIssue.primaryLocation().textRange()).isEqualTo(unchanged.newRange(1, 0, 1, 10));
+    assertThat(replayedIssue.flows()).hasSize(1);
+    assertThat(replayedIssue.flows().get(0).locations().get(0).message()).isEqualTo("name");
+  }
+
+  @Test
+  public void entries_of_files_not_analyzed_are_dropped() {
+    InputFile a = inputFile("A.java", "class A {}");
+    InputFile b = inputFile("B.java", "class B {}");
+    analyze(true, a);
+    analyze(true, b);
+    ClassIssueCheck.scannedFiles.clear();
+    analyze(true, a, b);
+    assertThat(ClassIssueCheck.scannedFiles).containsExactly("A.java");
+  }
+
+  @Test
+  public void only_entries_depending_on_changed_classes_of_classpath_directories_are_invalidated() throws IOException {
+    File classes = temporaryFolder.newFolder("classes");
+    Files.write(new File(classes, "Parent.class").toPath(), classBytes("Parent", "a"));
+    Files.write(new File(classes, "Other.class").toPath(), classBytes("Other", "a"));
+    List<File> classpath = Collections.singletonList(classes);
+    InputFile child = inputFile("A.java", "class A extends Parent {}");
+    InputFile independent = inputFile("B.java", "class B {}");
+    InputFile missingParent = inputFile("C.java", "class C extends Missing {}");
+    analyze(classpath, child, independent, missingParent);
+    ClassIssueCheck.scannedFiles.clear();
+
+    // recompiling classes the files do not depend on keeps their entries
+    Files.write(new File(classes, "Other.class").toPath(), classBytes("Other", "b"));
+    analyze(classpath, child, independent, missingParent);
+    assertThat(ClassIssueCheck.scannedFiles).isEmpty();
+
+    Files.write(new File(classes, "Parent.class").toPath(), classBytes("Parent", "b"));
+    analyze(classpath, child, independent, missingParent);
+    assertThat(ClassIssueCheck.scannedFiles).containsExactly("A.java");
+    ClassIssueCheck.scannedFiles.clear();
+
+    Files.write(new File(classes, "Missing.class").toPath(), classBytes("Missing", "a"));
+    analyze(classpath, child, independent, missingParent);
+    assertThat(ClassIssueCheck.scannedFiles).containsExactly("C.java");
+  }
+
+  @Test
+  public void cache_is_disabled_by_default() {
+    InputFile inputFile = inputFile("A.java", "class A {}");
+    analyze(false, inputFile);
+    analyze(false, inputFile);
+    assertThat(ClassIssueCheck.scannedFiles).containsExactly("A.java", "A.java");
+    assertThat(new File(workDir, "sonar-java-cache")).doesNotExist();
+  }
+
+  private SensorContextTester analyze(boolean cacheEnabled, InputFile... inputFiles) {
+    return analyze(cacheEnabled, new ArrayList<>(), inputFiles);
+  }
+
+  private SensorContextTester analyze(List<File> classpath, InputFile... inputFiles) {
+    return analyze(true, classpath, inputFiles);
+  }
+
+  private SensorContextTester analyze(boolean cacheEnabled, List<File> classpath, InputFile... inputFiles) {
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    context.fileSystem().setWorkDir(workDir.toPath());
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ANALYSIS_CACHE_KEY, cacheEnabled));
+    ActiveRules activeRules = new ActiveRulesBuilder().create(RULE_KEY).activate().build();
+    context.setActiveRules(activeRules);
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, new CheckFactory(activeRules));
+    sonarComponents.registerCheckClasses("repo", Collections.singletonList(ClassIssueCheck.class));
+    sonarComponents.setSensorContext(context);
+
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Arrays.asList(sonarComponents.checkClasses()), classpath, sonarComponents);
+    visitorsBridge.setJavaVersion(new JavaVersionImpl(8));
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(), sonarComponents);
+    scanner.setVisitorBridge(visitorsBridge);
+    scanner.scan(Arrays.asList(inputFiles));
+    return context;
+  }
+
+  private static byte[] classBytes(String name, String field) {
+    ClassWriter classWriter = new ClassWriter(0);
+    classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+    classWriter.visitField(Opcodes.ACC_PUBLIC, field, "I", null, null).visitEnd();
+    classWriter.visitEnd();
+    return classWriter.toByteArray();
+  }
+
+  private static InputFile inputFile(String name, String content) {
+    return new TestInputFileBuilder("", name)
+      .setContents(content)
+      .setCharset(StandardCharsets.UTF_8)
+      .setLanguage("java")
+      .build();
+  }
+
+  @org.sonar.check.Rule(key = "ClassIssue")
+  public static class ClassIssueCheck implements JavaFileScanner {
+    private static final List<String> scannedFiles = new ArrayList<>();
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles.add(context.getInputFile().filename());
+      for (Tree tree : context.getTree().types()) {
+        ClassTree classTree = (ClassTree) tree;
+        context.reportIssue(this, classTree, "class", Collections.singletonList(new JavaFileScannerContext.Location("name", classTree.simpleName())), null);
+      }
+    }
+  }
+}
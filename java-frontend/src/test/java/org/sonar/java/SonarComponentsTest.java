@@ -374,6 +374,20 @@ public class SonarComponentsTest {
     assertThat(sonarComponents.analysisCancelled()).isTrue();
   }
 
+  @Test
+  public void analysis_threads() {
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    sonarComponents.setSensorContext(context);
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(1);
+
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 4));
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(4);
+
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, -2));
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(1);
+  }
+
   @Test
   public void readFileContentFromInputFile() throws Exception {
     // read a file containing kanji set with correct encoding and expecting proper length of read input.
@@ -27,7 +27,9 @@ import java.io.File;
 import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Before;
@@ -36,6 +38,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.utils.Version;
@@ -139,6 +142,34 @@ public class JavaAstScannerTest {
     verifyZeroInteractions(visitor);
   }
 
+  @Test
+  public void parallel_scan_should_visit_files_in_input_order() {
+    List<InputFile> inputFiles = Arrays.asList(
+      TestUtils.inputFile("src/test/files/metrics/Comments.java"),
+      TestUtils.inputFile("src/test/files/metrics/NoSonar.java"),
+      TestUtils.inputFile("src/test/resources/AstScannerParseError.txt"),
+      TestUtils.inputFile("src/test/files/metrics/Complexity.java"),
+      TestUtils.inputFile("src/test/files/metrics/Statements.java"));
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null);
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 3));
+    sonarComponents.setSensorContext(context);
+    List<String> visitedFiles = new ArrayList<>();
+    JavaFileScanner visitor = new JavaFileScanner() {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        visitedFiles.add(context.getInputFile().filename() + (context.fileParsed() ? "" : " (not parsed)"));
+      }
+    };
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(), sonarComponents);
+    scanner.setVisitorBridge(new VisitorsBridge(Collections.singletonList(visitor), new ArrayList<>(), sonarComponents));
+
+    scanner.scan(inputFiles);
+
+    assertThat(visitedFiles).containsExactly("Comments.java", "NoSonar.java", "AstScannerParseError.txt (not parsed)", "Complexity.java", "Statements.java");
+    assertThat(sonarComponents.analysisErrors).hasSize(1);
+    assertThat(sonarComponents.analysisErrors.get(0).getKind()).isSameAs(AnalysisError.Kind.PARSE_ERROR);
+  }
+
   @Test
   public void should_interrupt_analysis_when_InterruptedException_is_thrown() {
     InputFile inputFile = TestUtils.inputFile("src/test/files/metrics/NoSonar.java");
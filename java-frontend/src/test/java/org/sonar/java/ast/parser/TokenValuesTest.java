@@ -0,0 +1,75 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.parser;
+
+import org.junit.Test;
+import org.sonar.java.model.InternalSyntaxToken;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenValuesTest {
+
+  @Test
+  public void short_values_are_shared() {
+    TokenValues tokenValues = new TokenValues();
+    char[] chars = "int a = b + a;".toCharArray();
+    String a = tokenValues.value(chars, 4, 5);
+    assertThat(a).isEqualTo("a");
+    assertThat(tokenValues.value(chars, 12, 13)).isSameAs(a);
+    assertThat(tokenValues.value(chars, 0, 3)).isEqualTo("int");
+    assertThat(tokenValues.value(chars, 0, 0)).isEmpty();
+    assertThat(tokenValues.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void long_values_are_not_shared() {
+    TokenValues tokenValues = new TokenValues();
+    char[] chars = "\"a string literal longer than the limit\"".toCharArray();
+    String value = tokenValues.value(chars, 0, chars.length);
+    assertThat(value).isEqualTo(new String(chars));
+    assertThat(tokenValues.value(chars, 0, chars.length)).isNotSameAs(value);
+    assertThat(tokenValues.size()).isZero();
+  }
+
+  @Test
+  public void table_stops_sharing_when_full() {
+    TokenValues tokenValues = new TokenValues();
+    for (int i = 0; i < 20_000; i++) {
+      char[] chars = ("v" + i).toCharArray();
+      assertThat(tokenValues.value(chars, 0, chars.length)).isEqualTo("v" + i);
+    }
+    assertThat(tokenValues.size()).isLessThan(20_000);
+    char[] chars = "v1".toCharArray();
+    assertThat(tokenValues.value(chars, 0, 2)).isSameAs(tokenValues.value(chars, 0, 2));
+  }
+
+  @Test
+  public void parsed_tokens_share_values() {
+    CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser().parse("class A { void f() {} void g() {} }");
+    ClassTree classTree = (ClassTree) tree.types().get(0);
+    InternalSyntaxToken first = (InternalSyntaxToken) ((MethodTree) classTree.members().get(0)).returnType().firstToken();
+    InternalSyntaxToken second = (InternalSyntaxToken) ((MethodTree) classTree.members().get(1)).returnType().firstToken();
+    assertThat(first.text()).isSameAs(second.text());
+    assertThat(first.trivias()).isEmpty();
+  }
+}
@@ -25,6 +25,8 @@ import org.junit.rules.ExpectedException;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -61,6 +63,23 @@ public class FileSystemLoaderTest {
     loader.findResource("tags/TagName.class");
   }
 
+  @Test
+  public void testForEachResourceName() throws Exception {
+    File dir = new File("src/test/files/bytecode/bin/");
+    FileSystemLoader loader = new FileSystemLoader(dir);
+    List<String> names = new ArrayList<>();
+
+    loader.forEachResourceName(names::add);
+
+    assertThat(names).contains("tags/TagName.class", "LambdaExpressions.class").doesNotContain("tags", "tags/");
+
+    loader.close();
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Loader closed");
+    loader.forEachResourceName(names::add);
+  }
+
   @Test
   public void testLoadBytes() throws Exception {
     File dir = new File("src/test/files/bytecode/bin/");
@@ -28,6 +28,8 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -69,6 +71,18 @@ public class JarLoaderTest {
     loader.findResource("META-INF/MANIFEST.MF");
   }
 
+  @Test
+  public void testForEachResourceName() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    JarLoader loader = new JarLoader(jar);
+    List<String> names = new ArrayList<>();
+
+    loader.forEachResourceName(names::add);
+
+    assertThat(names).contains("META-INF/MANIFEST.MF", "org/sonar/tests/Hello.class");
+    loader.close();
+  }
+
   @Test
   public void testLoadBytes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
@@ -0,0 +1,54 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.loader;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceIndexTest {
+
+  @Test
+  public void first_registered_loader_wins() {
+    ResourceIndex index = new ResourceIndex();
+    index.putIfAbsent("a/A.class", 0);
+    index.putIfAbsent("a/A.class", 1);
+    index.putIfAbsent("b/B.class", 1);
+
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(index.get("a/A.class")).isEqualTo(0);
+    assertThat(index.get("b/B.class")).isEqualTo(1);
+    assertThat(index.get("c/C.class")).isEqualTo(ResourceIndex.NOT_FOUND);
+  }
+
+  @Test
+  public void index_grows_without_losing_entries() {
+    ResourceIndex index = new ResourceIndex();
+    for (int i = 0; i < 10_000; i++) {
+      index.putIfAbsent("p/C" + i + ".class", i % 7);
+    }
+
+    assertThat(index.size()).isEqualTo(10_000);
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(index.get("p/C" + i + ".class")).isEqualTo(i % 7);
+    }
+    assertThat(index.get("p/C10000.class")).isEqualTo(ResourceIndex.NOT_FOUND);
+  }
+}
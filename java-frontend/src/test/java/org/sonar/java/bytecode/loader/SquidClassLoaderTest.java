@@ -25,11 +25,13 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
@@ -46,6 +48,9 @@ public class SquidClassLoaderTest {
   @Rule
   public LogTester logTester = new LogTester();
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private SquidClassLoader classLoader;
 
   @After
@@ -171,6 +176,19 @@ public class SquidClassLoaderTest {
     assertThat(classLoader.findResource("notfound")).isNull();
   }
 
+  @Test
+  public void resources_are_found_in_classpath_order() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    File otherJar = new File("src/test/files/bytecode/lib/likeJdkJar.jar");
+    classLoader = new SquidClassLoader(Arrays.asList(jar, otherJar));
+    assertThat(classLoader.findResource("META-INF/MANIFEST.MF").toString()).contains("hello.jar!");
+    classLoader.close();
+
+    classLoader = new SquidClassLoader(Arrays.asList(otherJar, jar));
+    assertThat(classLoader.findResource("META-INF/MANIFEST.MF").toString()).contains("likeJdkJar.jar!");
+    assertThat(classLoader.findResource("org/sonar/tests/Hello.class").toString()).contains("hello.jar!");
+  }
+
   @Test
   public void testFindResources() throws Exception {
     File dir = new File("src/test/files/bytecode/bin/");
@@ -195,7 +213,7 @@ public class SquidClassLoaderTest {
     classLoader.close();
 
     thrown.expect(IllegalStateException.class);
-    thrown.expectMessage("java.lang.IllegalStateException: zip file closed");
+    thrown.expectMessage("zip file closed");
     classLoader.getResource("org/sonar/tests/Hello.class");
   }
 
@@ -211,6 +229,52 @@ public class SquidClassLoaderTest {
     assertThat(classNode.name).isEqualTo("org/sonar/java/bytecode/loader/SquidClassLoaderTest");
   }
 
+  @Test
+  public void bytes_of_class_from_jar_are_read_from_loader() throws Exception {
+    classLoader = new SquidClassLoader(Collections.singletonList(new File("src/test/files/bytecode/lib/hello.jar")));
+    byte[] bytes = classLoader.getBytesForClass("org.sonar.tests.Hello");
+    assertThat(bytes).isEqualTo(IOUtils.toByteArray(classLoader.getResourceAsStream("org/sonar/tests/Hello.class")));
+    assertThat(new ClassReader(bytes).getClassName()).isEqualTo("org/sonar/tests/Hello");
+    // classes from JDK are still provided by parent class loader
+    assertThat(classLoader.getBytesForClass("java.lang.Object")).isNotEmpty();
+  }
+
+  @Test
+  public void class_structures_are_read_once() {
+    classLoader = new SquidClassLoader(Collections.singletonList(new File("src/test/files/bytecode/lib/hello.jar")));
+    ClassNode structure = classLoader.getClassStructure("org.sonar.tests.Hello");
+    assertThat(structure.name).isEqualTo("org/sonar/tests/Hello");
+    assertThat(structure.methods).isNotEmpty();
+    assertThat(structure.methods.stream().allMatch(method -> method.instructions.size() == 0)).isTrue();
+    assertThat(classLoader.getClassStructure("org/sonar/tests/Hello")).isSameAs(structure);
+    assertThat(classLoader.getClassStructure("org.sonar.tests.Unknown")).isNull();
+  }
+
+  @Test
+  public void class_structures_are_reused_from_snapshots() throws Exception {
+    File snapshotDirectory = temporaryFolder.newFolder();
+    List<File> classpath = Collections.singletonList(new File("src/test/files/bytecode/lib/hello.jar"));
+    classLoader = new SquidClassLoader(classpath);
+    classLoader.useClassStructureSnapshots(snapshotDirectory);
+    ClassNode structure = classLoader.getClassStructure("org.sonar.tests.Hello");
+    classLoader.getClassStructure("java.lang.Object");
+    classLoader.close();
+    assertThat(snapshotDirectory.listFiles()).hasSize(2);
+
+    classLoader = new SquidClassLoader(classpath) {
+      @Override
+      public byte[] getBytesForClass(String className) {
+        throw new IllegalStateException("class structure should be read from snapshot");
+      }
+    };
+    classLoader.useClassStructureSnapshots(snapshotDirectory);
+    ClassNode snapshotStructure = classLoader.getClassStructure("org.sonar.tests.Hello");
+    assertThat(snapshotStructure.name).isEqualTo(structure.name);
+    assertThat(snapshotStructure.superName).isEqualTo(structure.superName);
+    assertThat(snapshotStructure.methods).extracting(m -> m.name + m.desc).containsExactlyElementsOf(structure.methods.stream().map(m -> m.name + m.desc).collect(Collectors.toList()));
+    assertThat(classLoader.getClassStructure("java.lang.Object").name).isEqualTo("java/lang/Object");
+  }
+
   @Test
   public void empty_classloader_should_not_find_bytes() {
     SquidClassLoader classLoader = new SquidClassLoader(Collections.emptyList());
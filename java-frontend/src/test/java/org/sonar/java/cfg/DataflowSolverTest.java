@@ -0,0 +1,113 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.cfg;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataflowSolverTest {
+
+  private static final int X_IS_0 = 0;
+  private static final int X_IS_1 = 1;
+  private static final int X_DECLARED = 2;
+
+  @Test
+  public void forward_problems() {
+    CFG cfg = buildCFG("void foo(boolean b) { int x = 0; if (b) { x = 1; } foo(x); }");
+    CFG.Block entry = cfg.entryBlock();
+    CFG.Block assignment = entry.trueBlock();
+    CFG.Block join = entry.falseBlock();
+    assertThat(assignment.successors()).containsExactly(join);
+
+    // definitions of x reaching the call, on any path or on all paths
+    DataflowSolver reaching = definitionsOfX(cfg);
+    reaching.solve(DataflowSolver.Direction.FORWARD, DataflowSolver.Meet.UNION);
+    assertThat(facts(reaching, join)).containsExactlyInAnyOrder(X_IS_0, X_IS_1, X_DECLARED);
+    assertThat(reaching.out(assignment).boxed().collect(Collectors.toList())).containsExactlyInAnyOrder(X_IS_1, X_DECLARED);
+
+    DataflowSolver available = definitionsOfX(cfg);
+    available.solve(DataflowSolver.Direction.FORWARD, DataflowSolver.Meet.INTERSECTION);
+    assertThat(facts(available, join)).containsExactly(X_DECLARED);
+    assertThat(facts(available, entry)).isEmpty();
+  }
+
+  @Test
+  public void backward_problem_over_loop() {
+    CFG cfg = buildCFG("void foo(boolean b) { int x = 0; while (b) { foo(x); } }");
+    DataflowSolver solver = new DataflowSolver(cfg, 70);
+    // a fact in the second word of the bitsets, generated in the loop body and killed at its declaration
+    CFG.Block body = cfg.blocks().stream().filter(b -> b.elements().stream().anyMatch(e -> e.is(Tree.Kind.METHOD_INVOCATION)))
+      .findFirst().get();
+    solver.gen(body, 65);
+    solver.kill(cfg.entryBlock(), 65);
+    solver.solve(DataflowSolver.Direction.BACKWARD, DataflowSolver.Meet.UNION);
+    assertThat(solver.in(body).boxed().collect(Collectors.toList())).containsExactly(65);
+    // live around the loop, until the declaration
+    body.successors().forEach(loop -> assertThat(solver.in(loop).boxed().collect(Collectors.toList())).containsExactly(65));
+    assertThat(solver.out(cfg.entryBlock()).boxed().collect(Collectors.toList())).containsExactly(65);
+    assertThat(solver.in(cfg.entryBlock()).count()).isZero();
+    assertThat(solver.out(cfg.exitBlock()).count()).isZero();
+  }
+
+  @Test
+  public void forward_intersection_over_dead_code() {
+    CFG cfg = buildCFG("void foo(boolean b) { return; while (b) { foo(b); } }");
+    CFG.Block loop = cfg.blocks().stream().filter(b -> b.terminator() != null && b.terminator().is(Tree.Kind.WHILE_STATEMENT)).findFirst().get();
+    DataflowSolver solver = new DataflowSolver(cfg, 3);
+    solver.gen(cfg.entryBlock(), X_DECLARED);
+    solver.solve(DataflowSolver.Direction.FORWARD, DataflowSolver.Meet.INTERSECTION);
+    // the unreachable loop keeps the top of the lattice, which only holds the facts of the analysis
+    assertThat(facts(solver, loop)).containsExactly(X_IS_0, X_IS_1, X_DECLARED);
+    assertThat(solver.out(loop).boxed().collect(Collectors.toList())).containsExactly(X_IS_0, X_IS_1, X_DECLARED);
+    assertThat(facts(solver, cfg.exitBlock())).containsExactly(X_DECLARED);
+  }
+
+  private static DataflowSolver definitionsOfX(CFG cfg) {
+    DataflowSolver solver = new DataflowSolver(cfg, 3);
+    CFG.Block entry = cfg.entryBlock();
+    solver.gen(entry, X_IS_0);
+    solver.kill(entry, X_IS_1);
+    solver.gen(entry, X_DECLARED);
+    CFG.Block assignment = entry.trueBlock();
+    solver.gen(assignment, X_IS_1);
+    solver.kill(assignment, X_IS_0);
+    return solver;
+  }
+
+  private static List<Integer> facts(DataflowSolver solver, CFG.Block block) {
+    return solver.in(block).boxed().collect(Collectors.toList());
+  }
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = (CompilationUnitTree) LiveVariablesTest.PARSER.parse("class A { " + methodCode + " }");
+    SemanticModel.createFor(cut, new SquidClassLoader(Collections.emptyList()));
+    return CFG.build((MethodTree) ((ClassTree) cut.types().get(0)).members().get(0));
+  }
+}
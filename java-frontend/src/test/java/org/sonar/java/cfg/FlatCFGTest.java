@@ -0,0 +1,100 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.cfg;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlatCFGTest {
+
+  @Test
+  public void edges_are_the_ones_of_blocks() {
+    CFG cfg = buildCFG("void foo(boolean b) { try { foo(b); } catch (Exception e) { foo(!b); } if (b) { foo(b); } }");
+    FlatCFG flat = cfg.flat();
+    assertThat(cfg.flat()).isSameAs(flat);
+    assertThat(flat.blockCount()).isEqualTo(cfg.blocks().size());
+    assertThat(flat.entry()).isEqualTo(cfg.entryBlock().id());
+    for (CFG.Block block : cfg.blocks()) {
+      int id = block.id();
+      assertThat(flat.block(id)).isSameAs(block);
+      Set<Integer> expectedSuccessors = block.successors().stream().map(CFG.Block::id).collect(Collectors.toSet());
+      block.exceptions().forEach(e -> expectedSuccessors.add(e.id()));
+      assertThat(IntStream.range(0, flat.successorCount(id)).map(i -> flat.successor(id, i)).boxed().collect(Collectors.toSet())).isEqualTo(expectedSuccessors);
+      for (int i = 0; i < flat.predecessorCount(id); i++) {
+        int predecessor = flat.predecessor(id, i);
+        assertThat(IntStream.range(0, flat.successorCount(predecessor)).map(s -> flat.successor(predecessor, s)).boxed().collect(Collectors.toList())).contains(id);
+      }
+    }
+  }
+
+  @Test
+  public void reverse_postorder_and_dominators() {
+    CFG cfg = buildCFG("void foo(boolean b) { if (b) { foo(b); } else { foo(!b); } while (b) { foo(b); } foo(b); }");
+    FlatCFG flat = cfg.flat();
+    int[] reversePostorder = flat.reversePostorder();
+    assertThat(reversePostorder[0]).isEqualTo(flat.entry());
+    assertThat(reversePostorder).hasSize(flat.blockCount());
+    CFG.Block entry = cfg.entryBlock();
+    CFG.Block thenBlock = entry.trueBlock();
+    CFG.Block elseBlock = entry.falseBlock();
+    CFG.Block join = thenBlock.successors().iterator().next();
+    assertThat(elseBlock.successors()).containsExactly(join);
+
+    // a block comes before its successors, except along back edges
+    assertThat(flat.reversePostorderRank(entry.id())).isLessThan(flat.reversePostorderRank(thenBlock.id()));
+    assertThat(flat.reversePostorderRank(thenBlock.id())).isLessThan(flat.reversePostorderRank(join.id()));
+    assertThat(flat.reversePostorderRank(elseBlock.id())).isLessThan(flat.reversePostorderRank(join.id()));
+
+    assertThat(flat.immediateDominator(entry.id())).isEqualTo(-1);
+    assertThat(flat.immediateDominator(thenBlock.id())).isEqualTo(entry.id());
+    assertThat(flat.immediateDominator(join.id())).isEqualTo(entry.id());
+    assertThat(flat.dominates(entry.id(), join.id())).isTrue();
+    assertThat(flat.dominates(thenBlock.id(), join.id())).isFalse();
+    assertThat(flat.dominates(join.id(), join.id())).isTrue();
+    int exit = cfg.exitBlock().id();
+    assertThat(flat.dominates(join.id(), exit)).isTrue();
+  }
+
+  @Test
+  public void unreachable_blocks() {
+    CFG cfg = buildCFG("void foo(boolean b) { for (;;) { foo(b); } }");
+    FlatCFG flat = cfg.flat();
+    int exit = cfg.exitBlock().id();
+    assertThat(flat.reversePostorderRank(exit)).isEqualTo(FlatCFG.UNREACHABLE);
+    assertThat(flat.immediateDominator(exit)).isEqualTo(-1);
+    assertThat(flat.dominates(flat.entry(), exit)).isFalse();
+  }
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = (CompilationUnitTree) LiveVariablesTest.PARSER.parse("class A { " + methodCode + " }");
+    SemanticModel.createFor(cut, new SquidClassLoader(Collections.emptyList()));
+    return CFG.build((MethodTree) ((ClassTree) cut.types().get(0)).members().get(0));
+  }
+}
@@ -55,6 +55,16 @@ public class LiveVariablesTest {
     assertThat(liveVariables.getOut(cfg.reversedBlocks().get(3)).iterator().next().name()).isEqualTo("i");
   }
 
+  @Test
+  public void analysis_is_computed_once_per_cfg() {
+    CFG cfg = buildCFG("void foo(int a) {  int i; if (false) ; foo(i); }");
+    LiveVariables liveVariables = LiveVariables.analyze(cfg);
+    assertThat(LiveVariables.analyze(cfg)).isSameAs(liveVariables);
+    LiveVariables liveVariablesWithFields = LiveVariables.analyzeWithFields(cfg);
+    assertThat(liveVariablesWithFields).isNotSameAs(liveVariables);
+    assertThat(LiveVariables.analyzeWithFields(cfg)).isSameAs(liveVariablesWithFields);
+  }
+
   @Test
   public void test_try_finally_liveness() throws Exception {
     CFG cfg = buildCFG("void foo() {   Object object = null;\n" +
@@ -0,0 +1,162 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashTrieMapTest {
+
+  private static final class Key {
+    private final int hashCode;
+    private final String toString;
+
+    private Key(int hashCode, String toString) {
+      this.hashCode = hashCode;
+      this.toString = toString;
+    }
+
+    @Override
+    public final int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public final String toString() {
+      return toString;
+    }
+  }
+
+  @Test
+  public void empty() {
+    HashTrieMap<Object, Object> empty = HashTrieMap.create();
+    assertThat(empty.isEmpty()).isTrue();
+    assertThat(empty.get("k")).isNull();
+    assertThat(empty.remove("k")).isSameAs(empty);
+    assertThat(empty.hashCode()).isZero();
+    assertThat(empty.toString()).isEmpty();
+    assertThat(PCollections.emptyTrieMap()).isSameAs(empty);
+  }
+
+  @Test
+  public void put_get_remove() {
+    HashTrieMap<Object, Object> m = HashTrieMap.create();
+    HashTrieMap<Object, Object> m1 = m.put("k1", "v1");
+    assertThat(m1.get("k1")).isEqualTo("v1");
+    assertThat(m1.put("k1", "v1")).isSameAs(m1);
+    assertThat(m1.put("k1", "v2").get("k1")).isEqualTo("v2");
+    assertThat(m1.put("k1", "v2").size()).isEqualTo(1);
+    assertThat(m1.remove("k2")).isSameAs(m1);
+    assertThat(m1.remove("k1")).isSameAs(m);
+    assertThat(m1.contains("k1")).isTrue();
+    assertThat(m.add("e").contains("e")).isTrue();
+  }
+
+  @Test
+  public void entries_are_visited_in_ascending_order_of_hash_codes() {
+    Key negative = new Key(-5, "negative");
+    Key zero = new Key(0, "zero");
+    Key small = new Key(3, "small");
+    Key close = new Key(4, "close");
+    Key big = new Key(Integer.MAX_VALUE, "big");
+    HashTrieMap<Object, Object> m = HashTrieMap.<Object, Object>create().put(big, 1).put(small, 2).put(zero, 3).put(close, 4).put(negative, 5);
+    assertThat(m.toString()).isEqualTo(" negative->5 zero->3 small->2 close->4 big->1");
+    List<Object> keys = new ArrayList<>();
+    m.forEach((Object k) -> keys.add(k));
+    assertThat(keys).containsExactly(negative, zero, small, close, big);
+    assertThat(m.toString()).isEqualTo(AVLTree.create().put(big, 1).put(small, 2).put(zero, 3).put(close, 4).put(negative, 5).toString());
+  }
+
+  @Test
+  public void keys_with_same_hash_code() {
+    Key k1 = new Key(42, "k1");
+    Key k2 = new Key(42, "k2");
+    Key k3 = new Key(42, "k3");
+    HashTrieMap<Object, Object> m = HashTrieMap.<Object, Object>create().put(k1, "v1").put(k2, "v2").put(k3, "v3");
+    assertThat(m.toString()).isEqualTo(" k1->v1 k2->v2 k3->v3");
+    assertThat(m.put(k2, "v4").get(k2)).isEqualTo("v4");
+    HashTrieMap<Object, Object> withoutK2 = m.remove(k2);
+    assertThat(withoutK2.get(k2)).isNull();
+    assertThat(withoutK2.toString()).isEqualTo(" k1->v1 k3->v3");
+    HashTrieMap<Object, Object> single = withoutK2.remove(k1).put("other", "v");
+    assertThat(single.get(k3)).isEqualTo("v3");
+    assertThat(single.remove("other").toString()).isEqualTo(" k3->v3");
+    assertThat(m).isEqualTo(HashTrieMap.create().put(k3, "v3").put(k2, "v2").put(k1, "v1"));
+  }
+
+  @Test
+  public void same_content_as_avl_tree() {
+    Random random = new Random(42);
+    Map<Key, Integer> expected = new HashMap<>();
+    List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      // few distinct hash codes, to have collisions and deep tries
+      keys.add(new Key(random.nextInt(64) << random.nextInt(26), "k" + i));
+    }
+    PMap<Key, Integer> trie = HashTrieMap.create();
+    PMap<Key, Integer> avl = AVLTree.create();
+    for (int i = 0; i < 5_000; i++) {
+      Key key = keys.get(random.nextInt(keys.size()));
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        trie = trie.remove(key);
+        avl = avl.remove(key);
+      } else {
+        expected.put(key, i);
+        trie = trie.put(key, i);
+        avl = avl.put(key, i);
+      }
+    }
+    assertThat(((HashTrieMap<Key, Integer>) trie).size()).isEqualTo(expected.size());
+    for (Key key : keys) {
+      assertThat(trie.get(key)).isEqualTo(expected.get(key));
+    }
+    Map<Key, Integer> visited = new HashMap<>();
+    trie.forEach(visited::put);
+    assertThat(visited).isEqualTo(expected);
+    assertThat(trie.hashCode()).isEqualTo(avl.hashCode());
+
+    PMap<Key, Integer> rebuilt = HashTrieMap.create();
+    for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+      rebuilt = rebuilt.put(entry.getKey(), entry.getValue());
+    }
+    assertThat(rebuilt).isEqualTo(trie);
+    assertThat(rebuilt.hashCode()).isEqualTo(trie.hashCode());
+    assertThat(rebuilt.put(keys.get(0), -1)).isNotEqualTo(trie);
+    for (Key key : keys) {
+      trie = trie.remove(key);
+    }
+    assertThat(trie).isSameAs(HashTrieMap.create());
+  }
+
+  @Test
+  public void not_equal_to_other_maps() {
+    HashTrieMap<Object, Object> m = HashTrieMap.create().put("k", "v");
+    assertThat(m).isNotEqualTo(AVLTree.create().put("k", "v"));
+    assertThat(m).isNotEqualTo(HashTrieMap.create().put("k", "v2"));
+    assertThat(m).isEqualTo(m);
+  }
+}
@@ -23,6 +23,7 @@ import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.IntFunction;
@@ -33,6 +34,9 @@ import org.assertj.core.api.Fail;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.internal.SonarRuntimeImpl;
+import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.java.SonarComponents;
@@ -43,6 +47,7 @@ import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 
@@ -84,6 +89,94 @@ public class VisitorsBridgeTest {
     visitorsBridge.visitFile(parse(code));
   }
 
+  @Test
+  public void subscription_visitors_are_dispatched_by_kind() {
+    List<String> events = new ArrayList<>();
+    IssuableSubscriptionVisitor nodeVisitor = new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        return Arrays.asList(Tree.Kind.METHOD, Tree.Kind.IDENTIFIER);
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        events.add("visit " + tree.kind());
+      }
+
+      @Override
+      public void leaveNode(Tree tree) {
+        events.add("leave " + tree.kind());
+      }
+    };
+    IssuableSubscriptionVisitor triviaVisitor = new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        return Collections.singletonList(Tree.Kind.TRIVIA);
+      }
+
+      @Override
+      public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+        events.add("trivia " + syntaxTrivia.comment());
+      }
+    };
+    String code = "class A { void foo() { /* c1 */ bar(); } }";
+    checkFile("A.java", code, new VisitorsBridge(Collections.singletonList(nodeVisitor), new ArrayList<>(), null));
+    // class name, then method name and invoked method
+    assertThat(events).containsExactly("visit IDENTIFIER", "leave IDENTIFIER", "visit METHOD", "visit IDENTIFIER", "leave IDENTIFIER",
+      "visit IDENTIFIER", "leave IDENTIFIER", "leave METHOD");
+
+    events.clear();
+    checkFile("A.java", code, new VisitorsBridge(Arrays.asList(nodeVisitor, triviaVisitor), new ArrayList<>(), null));
+    assertThat(events).containsExactly("visit IDENTIFIER", "leave IDENTIFIER", "visit METHOD", "visit IDENTIFIER", "leave IDENTIFIER",
+      "visit IDENTIFIER", "trivia /* c1 */", "leave IDENTIFIER", "leave METHOD");
+  }
+
+  @Test
+  public void subscription_visitors_can_skip_children() {
+    List<String> events = new ArrayList<>();
+    IssuableSubscriptionVisitor skippingVisitor = new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        return Arrays.asList(Tree.Kind.METHOD, Tree.Kind.IDENTIFIER);
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        events.add("skipping visit " + tree.kind());
+        if (tree.is(Tree.Kind.METHOD)) {
+          skipChildren(tree);
+        }
+      }
+
+      @Override
+      public void leaveNode(Tree tree) {
+        events.add("skipping leave " + tree.kind());
+      }
+    };
+    IssuableSubscriptionVisitor identifierVisitor = new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        return Collections.singletonList(Tree.Kind.IDENTIFIER);
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        events.add("visit " + tree.kind());
+      }
+    };
+    String code = "class A { void foo() { bar(); } }";
+    checkFile("A.java", code, new VisitorsBridge(Arrays.asList(skippingVisitor, identifierVisitor), new ArrayList<>(), null));
+    assertThat(events).containsExactly(
+      "skipping visit IDENTIFIER", "visit IDENTIFIER", "skipping leave IDENTIFIER",
+      "skipping visit METHOD", "visit IDENTIFIER", "visit IDENTIFIER", "skipping leave METHOD");
+    assertThat(skippingVisitor.skippedTree()).isNull();
+
+    // subtree is not walked at all when every visitor skips it
+    events.clear();
+    checkFile("A.java", code, new VisitorsBridge(Collections.singletonList(skippingVisitor), new ArrayList<>(), null));
+    assertThat(events).containsExactly("skipping visit IDENTIFIER", "skipping leave IDENTIFIER", "skipping visit METHOD", "skipping leave METHOD");
+  }
+
   @Test
   public void log_only_50_elements() throws Exception {
     DecimalFormat formatter = new DecimalFormat("00");
@@ -102,6 +195,31 @@ public class VisitorsBridgeTest {
     );
   }
 
+  @Test
+  public void files_over_budget_are_analyzed_without_semantic() {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File("")).setRuntime(SonarRuntimeImpl.forSonarLint(Version.create(6, 7)));
+    sensorContextTester.setSettings(new MapSettings()
+      .setProperty(SonarComponents.MAX_FILE_LINES_KEY, 3)
+      .setProperty(SonarComponents.MAX_FILE_SIZE_KEY, 100));
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    sonarComponents.setSensorContext(sensorContextTester);
+    List<Boolean> semanticAvailable = new ArrayList<>();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(
+      Collections.singletonList((JavaFileScanner) context -> semanticAvailable.add(context.getSemanticModel() != null)), new ArrayList<>(), sonarComponents);
+    visitorsBridge.setJavaVersion(new JavaVersionImpl(8));
+
+    checkFile("Small.java", "class Small {\n}\n", visitorsBridge);
+    checkFile("Long.java", "class Long {\n\n\n\n}\n", visitorsBridge);
+    checkFile("Large.java", "class Large { String s = \"" + String.join("", Collections.nCopies(100, "a")) + "\"; }", visitorsBridge);
+    assertThat(semanticAvailable).containsExactly(true, false, false);
+    assertThat(logTester.logs(LoggerLevel.WARN)).containsExactly(
+      "File 'Long.java' exceeds analysis budget with 6 lines (sonar.java.maxFileLines=3): only rules not requiring semantic are executed",
+      "File 'Large.java' exceeds analysis budget with 130 characters (sonar.java.maxFileSize=100): only rules not requiring semantic are executed");
+
+    visitorsBridge.endOfAnalysis();
+    assertThat(logTester.logs(LoggerLevel.WARN)).contains("2 file(s) analyzed without semantic because of analysis budgets: [Large.java, Long.java]");
+  }
+
   private static String contstructFileName(String... path) {
     String result = "";
     for (String s : path) {
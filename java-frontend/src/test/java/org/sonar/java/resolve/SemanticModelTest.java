@@ -0,0 +1,136 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.collect.Lists;
+import java.io.File;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.model.AbstractTypedTree;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SemanticModelTest {
+
+  private static final SquidClassLoader CLASS_LOADER = new SquidClassLoader(Lists.newArrayList(new File("target/test-classes"), new File("target/classes")));
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private SemanticModel semanticModel;
+
+  @After
+  public void tearDown() {
+    if (semanticModel != null) {
+      semanticModel.discardDeferredBodies();
+    }
+  }
+
+  @Test
+  public void method_bodies_are_attributed_on_demand() {
+    ClassTree classTree = parse("class A { int f = 1; void m() { foo(f); } void n() { foo(2); } void foo(int i) {} }");
+    MethodInvocationTree inM = invocation(classTree, 1);
+    MethodInvocationTree inN = invocation(classTree, 2);
+    assertThat(((AbstractTypedTree) inM).isTypeSet()).isFalse();
+    assertThat(((AbstractTypedTree) inN).isTypeSet()).isFalse();
+
+    assertThat(inM.symbol().name()).isEqualTo("foo");
+    assertThat(((AbstractTypedTree) inM).isTypeSet()).isTrue();
+    assertThat(((AbstractTypedTree) inN).isTypeSet()).isFalse();
+
+    MethodTree foo = (MethodTree) classTree.members().get(3);
+    assertThat(foo.symbol().usages()).hasSize(2);
+    assertThat(((AbstractTypedTree) inN).isTypeSet()).isTrue();
+    assertThat(inN.symbol()).isSameAs(foo.symbol());
+  }
+
+  @Test
+  public void inferred_types_are_attributed_when_requesting_declarations() {
+    ClassTree classTree = parse("class A { void m() { java.util.function.IntFunction<String> f = i -> \"\" + i; var s = f.apply(1); } }");
+    MethodTree method = (MethodTree) classTree.members().get(0);
+    VariableTree s = (VariableTree) method.block().body().get(1);
+    assertThat(s.symbol().type().is("java.lang.String")).isTrue();
+  }
+
+  @Test
+  public void deferred_bodies_are_attributed_by_the_model_of_their_file() {
+    ClassTree classA = parse("class A { void m() { m(); } }");
+    SemanticModel modelOfA = semanticModel;
+    ClassTree classB = parse("class B { void n() { n(); } }");
+    assertThat(invocation(classA, 0).symbol().owner().name()).isEqualTo("A");
+    assertThat(invocation(classB, 0).symbol().owner().name()).isEqualTo("B");
+    modelOfA.discardDeferredBodies();
+  }
+
+  @Test
+  public void requesting_types_of_bodies_not_attributed_fails_once_discarded() {
+    ClassTree classTree = parse("class A { void m() { m(); } void n() { n(); } }");
+    assertThat(invocation(classTree, 0).symbol().name()).isEqualTo("m");
+    semanticModel.discardDeferredBodies();
+    MethodInvocationTree inN = invocation(classTree, 1);
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Body of method 'n' at line 1 can not be attributed once deferred bodies have been discarded");
+    inN.symbol();
+  }
+
+  @Test
+  public void only_trees_of_deferred_bodies_look_for_their_model() {
+    ClassTree classTree = parse("class A { void m() { m(); } }");
+    MethodTree method = (MethodTree) classTree.members().get(0);
+    MethodInvocationTree inM = invocation(classTree, 0);
+    assertThat(((JavaTree) method).isInDeferredBody()).isFalse();
+    assertThat(((JavaTree) method.block()).isInDeferredBody()).isTrue();
+    assertThat(((JavaTree) inM.methodSelect()).isInDeferredBody()).isTrue();
+
+    assertThat(inM.symbol().name()).isEqualTo("m");
+    assertThat(((JavaTree) method.block()).isInDeferredBody()).isFalse();
+    assertThat(((JavaTree) inM.methodSelect()).isInDeferredBody()).isFalse();
+  }
+
+  @Test
+  public void all_bodies_are_attributed_eagerly_by_default() {
+    CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser().parse("class A { void m() { m(); } }");
+    semanticModel = SemanticModel.createFor(tree, CLASS_LOADER);
+    ClassTree classTree = (ClassTree) tree.types().get(0);
+    assertThat(((AbstractTypedTree) invocation(classTree, 0)).isTypeSet()).isTrue();
+  }
+
+  private ClassTree parse(String source) {
+    CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser().parse(source);
+    semanticModel = SemanticModel.createFor(tree, CLASS_LOADER, true);
+    return (ClassTree) tree.types().get(0);
+  }
+
+  private static MethodInvocationTree invocation(ClassTree classTree, int memberIndex) {
+    MethodTree method = (MethodTree) classTree.members().get(memberIndex);
+    return (MethodInvocationTree) ((ExpressionStatementTree) method.block().body().get(0)).expression();
+  }
+}
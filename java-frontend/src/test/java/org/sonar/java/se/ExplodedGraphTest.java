@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se;
 
+import java.util.stream.Collectors;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -52,6 +53,13 @@ public class ExplodedGraphTest {
     assertThat(child.edges()).hasSize(2);
     assertThat(child.edges()).extracting("parent").contains(parent, parent2);
     assertThat(child.parents()).hasSize(2);
+    assertThat(child.parents()).containsExactlyElementsOf(child.edges().stream().map(ExplodedGraph.Edge::parent).collect(Collectors.toList()));
+    assertThat(child.edges()).extracting(e -> e.id).containsOnly(0, 1);
+
+    // adding a known parent once edges are stored in a map
+    child.addParent(parent, null);
+    assertThat(child.edges()).hasSize(2);
+    assertThat(child.edges()).allMatch(e -> e.yields().isEmpty());
   }
 
   private ProgramPoint mockProgramPoint(String toString) {
@@ -25,12 +25,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.Test;
+import org.sonar.java.AnalysisResultsCache;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.model.JavaTree;
 import org.sonar.java.resolve.JavaSymbol;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.se.checks.BooleanGratuitousExpressionsCheck;
@@ -48,6 +51,7 @@ import org.sonar.java.se.checks.OptionalGetBeforeIsPresentCheck;
 import org.sonar.java.se.checks.ParameterNullnessCheck;
 import org.sonar.java.se.checks.RedundantAssignmentsCheck;
 import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.checks.StreamConsumedCheck;
 import org.sonar.java.se.checks.StreamNotConsumedCheck;
 import org.sonar.java.se.checks.UnclosedResourcesCheck;
 import org.sonar.java.se.checks.debug.DebugMethodYieldsCheck;
@@ -57,6 +61,7 @@ import org.sonar.java.se.xproc.BehaviorCache;
 import org.sonar.java.se.xproc.HappyPathYield;
 import org.sonar.java.se.xproc.MethodBehavior;
 import org.sonar.java.se.xproc.MethodYield;
+import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
@@ -68,6 +73,9 @@ import org.sonar.plugins.java.api.tree.Tree;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.sonar.java.se.SETestUtils.createSymbolicExecutionVisitor;
 
 public class ExplodedGraphWalkerTest {
@@ -289,6 +297,122 @@ public class ExplodedGraphWalkerTest {
     });
   }
 
+  @Test
+  public void exploration_limits_are_configurable_and_reported() throws Exception {
+    ExplorationReport report = new ExplorationReport(1);
+    ExplorationLimits limits = new ExplorationLimits(100, 1_024, 2, 0, 0);
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxSteps.java",
+      new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, report));
+    assertThat(report.mostExpensiveMethods()).hasSize(1);
+    ExplorationReport.MethodExploration exploration = report.mostExpensiveMethods().get(0);
+    assertThat(exploration.stoppedBy).isEqualTo(ExplorationLimits.Limit.STEPS);
+    assertThat(exploration.steps).isEqualTo(101);
+    assertThat(exploration.nodes).isPositive();
+    assertThat(exploration.programStates).isPositive().isLessThanOrEqualTo(exploration.nodes);
+    assertThat(exploration.toString()).contains("101 steps", "stopped by STEPS", "A#plop:2");
+  }
+
+  @Test
+  public void exploration_is_stopped_by_file_time_budget() throws Exception {
+    ExplorationReport report = new ExplorationReport(5);
+    ExplorationLimits limits = new ExplorationLimits(ExplorationLimits.DEFAULT.maxSteps(), 1_024, 2, 0, 1);
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxSteps.java",
+      new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, report));
+    assertThat(report.mostExpensiveMethods()).extracting(m -> m.stoppedBy).containsExactly(ExplorationLimits.Limit.FILE_TIME);
+  }
+
+  @Test
+  public void results_are_not_cached_when_a_time_budget_stops_exploration() throws Exception {
+    AnalysisResultsCache analysisResultsCache = mock(AnalysisResultsCache.class);
+    ExplorationLimits limits = new ExplorationLimits(ExplorationLimits.DEFAULT.maxSteps(), 1_024, 2, 0, 1);
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxSteps.java",
+      new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, null, analysisResultsCache));
+    verify(analysisResultsCache).invalidateCurrentFile();
+
+    analysisResultsCache = mock(AnalysisResultsCache.class);
+    limits = new ExplorationLimits(100, 1_024, 2, 0, 0);
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxSteps.java",
+      new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, null, analysisResultsCache));
+    verify(analysisResultsCache, never()).invalidateCurrentFile();
+  }
+
+  @Test
+  public void exploration_strategies_explore_the_same_graph() throws Exception {
+    Map<String, Integer> depthFirstNodes = exploredNodes(ExplorationStrategy.DEPTH_FIRST);
+    assertThat(depthFirstNodes).hasSize(3);
+    for (ExplorationStrategy strategy : ExplorationStrategy.values()) {
+      assertThat(exploredNodes(strategy)).as(strategy.name()).isEqualTo(depthFirstNodes);
+    }
+  }
+
+  private static Map<String, Integer> exploredNodes(ExplorationStrategy strategy) {
+    ExplorationReport report = new ExplorationReport(10);
+    ExplorationLimits defaults = ExplorationLimits.DEFAULT;
+    ExplorationLimits limits = new ExplorationLimits(defaults.maxSteps(), defaults.maxStartingStates(), defaults.maxExecProgramPoint(), 0, 0, strategy, false);
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/ExplorationStrategies.java",
+      new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, report));
+    assertThat(report.mostExpensiveMethods()).extracting(m -> m.stoppedBy).containsOnly((ExplorationLimits.Limit) null);
+    return report.mostExpensiveMethods().stream().collect(Collectors.toMap(m -> m.method, m -> m.nodes));
+  }
+
+  @Test
+  public void exploration_strategy_changes_what_is_explored_within_the_step_budget() throws Exception {
+    int lineOfEnd = 52;
+    // the first path followed depth first reaches the end of the method, paths explored in parallel exhaust the budget before
+    assertThat(exploredLinesWithinBudget(ExplorationStrategy.DEPTH_FIRST)).contains(lineOfEnd);
+    assertThat(exploredLinesWithinBudget(ExplorationStrategy.BREADTH_FIRST)).doesNotContain(lineOfEnd);
+  }
+
+  private static Set<Integer> exploredLinesWithinBudget(ExplorationStrategy strategy) {
+    ExplorationReport report = new ExplorationReport(1);
+    ExplorationLimits defaults = ExplorationLimits.DEFAULT;
+    ExplorationLimits limits = new ExplorationLimits(500, defaults.maxStartingStates(), defaults.maxExecProgramPoint(), 0, 0, strategy, false);
+    Set<Integer> exploredLines = new HashSet<>();
+    SECheck exploredLinesCheck = new SECheck() {
+      @Override
+      public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+        exploredLines.add(((JavaTree) syntaxNode).getLine());
+        return context.getState();
+      }
+    };
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/ExplorationStrategiesBudget.java",
+      new SymbolicExecutionVisitor(Collections.singletonList(exploredLinesCheck), new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, report));
+    assertThat(report.mostExpensiveMethods()).extracting(m -> m.stoppedBy).containsOnly(ExplorationLimits.Limit.STEPS);
+    return exploredLines;
+  }
+
+  @Test
+  public void states_are_merged_at_join_points_when_only_differing_in_constraints_of_inactive_rules() throws Exception {
+    int exactNodes = exploredNodesWithSubsumption(false, Collections.emptyList());
+    assertThat(exploredNodesWithSubsumption(true, Collections.emptyList())).isLessThan(exactNodes);
+    // lock constraints are observed by the locks rule once active
+    assertThat(exploredNodesWithSubsumption(true, Collections.singletonList(new LocksNotUnlockedCheck()))).isEqualTo(exactNodes);
+  }
+
+  @Test
+  public void constraints_of_default_checks_are_kept_when_read_by_active_rules() throws Exception {
+    String file = "src/test/files/se/StateSubsumptionStreams.java";
+    int exactNodes = exploredNodesWithSubsumption(file, false, Collections.emptyList());
+    assertThat(exploredNodesWithSubsumption(file, true, Collections.emptyList())).isLessThan(exactNodes);
+    // stream pipeline constraints are set by the stream consumed rule, which runs by default, and read by the stream not consumed rule
+    assertThat(exploredNodesWithSubsumption(file, true, Collections.singletonList(new StreamNotConsumedCheck()))).isEqualTo(exactNodes);
+    assertThat(exploredNodesWithSubsumption(file, true, Collections.singletonList(new StreamConsumedCheck()))).isEqualTo(exactNodes);
+  }
+
+  private static int exploredNodesWithSubsumption(boolean stateSubsumption, List<JavaFileScanner> checks) {
+    return exploredNodesWithSubsumption("src/test/files/se/StateSubsumption.java", stateSubsumption, checks);
+  }
+
+  private static int exploredNodesWithSubsumption(String file, boolean stateSubsumption, List<JavaFileScanner> checks) {
+    ExplorationReport report = new ExplorationReport(1);
+    ExplorationLimits defaults = ExplorationLimits.DEFAULT;
+    ExplorationLimits limits = new ExplorationLimits(defaults.maxSteps(), defaults.maxStartingStates(), defaults.maxExecProgramPoint(), 0, 0,
+      ExplorationStrategy.DEPTH_FIRST, stateSubsumption);
+    JavaCheckVerifier.verifyNoIssue(file,
+      new SymbolicExecutionVisitor(checks, new BehaviorCache(new SquidClassLoader(new ArrayList<>())), limits, report));
+    return report.mostExpensiveMethods().get(0).nodes;
+  }
+
   @Test
   public void test_maximum_steps_reached_with_issue() throws Exception {
     JavaCheckVerifier.verify("src/test/files/se/MaxStepsWithIssue.java", new UnclosedResourcesCheck());
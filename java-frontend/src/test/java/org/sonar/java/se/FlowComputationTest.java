@@ -0,0 +1,58 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class FlowComputationTest {
+
+  @Test
+  public void edge_sets_are_persistent() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ExplodedGraph.Node child = eg.node(mock(ProgramPoint.class), null);
+    // enough edges for the trie to have several levels
+    for (int i = 0; i < 3000; i++) {
+      child.addParent(eg.node(mock(ProgramPoint.class), null), null);
+    }
+    List<ExplodedGraph.Edge> edges = new ArrayList<>(child.edges());
+    edges.sort(Comparator.comparingInt(e -> e.id));
+    assertThat(edges).extracting(e -> e.id).startsWith(0).endsWith(2999);
+
+    FlowComputation.EdgeSet evenEdges = FlowComputation.EdgeSet.EMPTY;
+    for (int i = edges.size() - 1; i >= 0; i -= 2) {
+      evenEdges = evenEdges.add(edges.get(i));
+    }
+    FlowComputation.EdgeSet withFirstEdge = evenEdges.add(edges.get(0));
+    assertThat(evenEdges.add(edges.get(1))).isSameAs(evenEdges);
+
+    for (int i = 0; i < edges.size(); i++) {
+      assertThat(evenEdges.contains(edges.get(i))).isEqualTo(i % 2 == 1);
+      assertThat(withFirstEdge.contains(edges.get(i))).isEqualTo(i == 0 || i % 2 == 1);
+      assertThat(FlowComputation.EdgeSet.EMPTY.contains(edges.get(i))).isFalse();
+    }
+  }
+
+}
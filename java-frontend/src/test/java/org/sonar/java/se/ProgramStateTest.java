@@ -55,6 +55,18 @@ public class ProgramStateTest {
     assertThat(state.equals(state2)).isTrue();
   }
 
+  @Test
+  public void subsumed_states_have_the_same_subsumption_hash() {
+    SymbolicValue sv1 = new SymbolicValue();
+    Symbol variable = new JavaSymbol.VariableJavaSymbol(0, "x", new JavaSymbol(JavaSymbol.TYP, 0, "A", Symbols.unknownSymbol));
+    ProgramState general = ProgramState.EMPTY_STATE.put(variable, sv1);
+    ProgramState specific = general.addConstraint(sv1, UnclosedResourcesCheck.ResourceConstraint.OPEN);
+    assertThat(general.subsumes(specific, UnclosedResourcesCheck.ResourceConstraint.class::equals)).isTrue();
+    assertThat(general.subsumes(specific, domain -> false)).isFalse();
+    assertThat(specific.subsumptionHash()).isEqualTo(general.subsumptionHash());
+    assertThat(general.stackValue(sv1).subsumptionHash()).isNotEqualTo(general.subsumptionHash());
+  }
+
   @Test
   public void testStackUnstack() {
     SymbolicValue sv1 = new SymbolicValue();
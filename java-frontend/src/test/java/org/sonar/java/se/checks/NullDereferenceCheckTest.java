@@ -68,4 +68,9 @@ public class NullDereferenceCheckTest {
   public void test_npe_transitive() throws Exception {
     JavaCheckVerifier.verify("src/test/files/se/NPE_transitive.java", new NullDereferenceCheck());
   }
+
+  @Test
+  public void flows_are_not_computed_for_suppressed_issues() throws Exception {
+    JavaCheckVerifier.verify("src/test/files/se/NPE_nosonar.java", new NullDereferenceCheck());
+  }
 }
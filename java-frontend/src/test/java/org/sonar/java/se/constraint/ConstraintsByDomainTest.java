@@ -47,6 +47,14 @@ public class ConstraintsByDomainTest {
     assertThat(c1).isSameAs(c2);
   }
 
+  @Test
+  public void single_enum_constraints_are_shared() throws Exception {
+    assertThat(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL)).isSameAs(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    assertThat(ConstraintsByDomain.empty().put(BooleanConstraint.TRUE)).isNotSameAs(ConstraintsByDomain.empty().put(BooleanConstraint.FALSE));
+    TypedConstraint typedConstraint = new TypedConstraint("java.lang.String");
+    assertThat(ConstraintsByDomain.empty().put(typedConstraint)).isNotSameAs(ConstraintsByDomain.empty().put(typedConstraint));
+  }
+
   @Test
   public void test_domains() throws Exception {
     ConstraintsByDomain constraints = ConstraintsByDomain.empty();
@@ -357,6 +357,18 @@ public class RelationalSymbolicValueTest {
     assertThat(transitive).containsOnly(relationalSV(Tree.Kind.EQUAL_TO, a, c), relationalSV(Tree.Kind.EQUAL_TO, b, d), relationalSV(Tree.Kind.EQUAL_TO, a, d));
   }
 
+  @Test
+  public void test_transitive_relations_only_involve_relations_sharing_operands() throws Exception {
+    RelationalSymbolicValue ab = relationalSV(Tree.Kind.LESS_THAN, a, b);
+    RelationalSymbolicValue bc = relationalSV(Tree.Kind.LESS_THAN, b, c);
+    RelationalSymbolicValue cc = relationalSV(Tree.Kind.EQUAL_TO, c, c);
+    RelationalSymbolicValue de = relationalSV(Tree.Kind.EQUAL_TO, d, e);
+    Set<RelationalSymbolicValue> transitive = ab.transitiveRelations(ImmutableSet.of(ab, bc, cc, de));
+    assertThat(transitive).containsOnly(relationalSV(Tree.Kind.LESS_THAN, a, c));
+    assertThat(ab.resolveRelationState(ImmutableSet.of(bc, cc, de, ab.inverse()))).isEqualTo(UNFULFILLED);
+    assertThat(ab.resolveRelationState(ImmutableSet.of(bc, cc, de))).isEqualTo(RelationState.UNDETERMINED);
+  }
+
   @Test
   public void test_constraints_are_copied_over_transitive_relations() throws Exception {
     ProgramState ps = ProgramState.EMPTY_STATE;
@@ -0,0 +1,118 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BehaviorCacheTest {
+
+  private static final String TEST_CLASS = "org.sonar.java.bytecode.se.testdata.BytecodeTestClass#";
+
+  private static SquidClassLoader squidClassLoader;
+  private static SemanticModel semanticModel;
+
+  @BeforeClass
+  public static void setUp() {
+    List<File> files = Lists.newArrayList(new File("target/test-classes"), new File("target/classes"));
+    files.addAll(FileUtils.listFiles(new File("target/test-jars"), new String[] {"jar"}, false));
+    squidClassLoader = new SquidClassLoader(files);
+    semanticModel = SemanticModel.createFor((CompilationUnitTree) JavaParser.createParser().parse("class A {}"), squidClassLoader);
+  }
+
+  @Test
+  public void bytecode_behaviors_are_kept_without_limit() {
+    BehaviorCache behaviorCache = behaviorCache(0);
+    MethodBehavior fun = behaviorCache.get(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;");
+    behaviorCache.get(TEST_CLASS + "fun2(Z)Ljava/lang/Object;");
+    assertThat(behaviorCache.get(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;")).isSameAs(fun);
+    assertThat(behaviorCache.hits()).isEqualTo(1);
+    assertThat(behaviorCache.misses()).isEqualTo(2);
+    assertThat(behaviorCache.evictions()).isZero();
+  }
+
+  @Test
+  public void least_recently_used_bytecode_behaviors_are_evicted() {
+    // each behavior has 2 yields, counting for 3 with the behavior itself
+    BehaviorCache behaviorCache = behaviorCache(6);
+    MethodBehavior fun = behaviorCache.get(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;");
+    MethodBehavior fun2 = behaviorCache.get(TEST_CLASS + "fun2(Z)Ljava/lang/Object;");
+    assertThat(behaviorCache.get(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;")).isSameAs(fun);
+    assertThat(behaviorCache.evictions()).isZero();
+
+    behaviorCache.get(TEST_CLASS + "int_comparison(II)Ljava/lang/Object;");
+    assertThat(behaviorCache.evictions()).isEqualTo(1);
+    assertThat(behaviorCache.peek(TEST_CLASS + "fun2(Z)Ljava/lang/Object;")).isNull();
+    assertThat(behaviorCache.peek(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;")).isSameAs(fun);
+
+    MethodBehavior recomputed = behaviorCache.get(TEST_CLASS + "fun2(Z)Ljava/lang/Object;");
+    assertThat(recomputed).isNotSameAs(fun2);
+    assertThat(recomputed.yields()).isEqualTo(fun2.yields());
+    assertThat(behaviorCache.hits()).isEqualTo(1);
+    assertThat(behaviorCache.misses()).isEqualTo(4);
+    assertThat(behaviorCache.evictions()).isEqualTo(2);
+  }
+
+  @Test
+  public void peeking_does_not_mark_bytecode_behaviors_as_recently_used() {
+    BehaviorCache behaviorCache = behaviorCache(6);
+    MethodBehavior fun = behaviorCache.get(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;");
+    MethodBehavior fun2 = behaviorCache.get(TEST_CLASS + "fun2(Z)Ljava/lang/Object;");
+    assertThat(behaviorCache.peek(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;")).isSameAs(fun);
+
+    behaviorCache.get(TEST_CLASS + "int_comparison(II)Ljava/lang/Object;");
+    assertThat(behaviorCache.evictions()).isEqualTo(1);
+    assertThat(behaviorCache.peek(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;")).isNull();
+    assertThat(behaviorCache.peek(TEST_CLASS + "fun2(Z)Ljava/lang/Object;")).isSameAs(fun2);
+  }
+
+  @Test
+  public void incomplete_bytecode_behaviors_are_kept_without_being_counted() {
+    BehaviorCache behaviorCache = behaviorCache(6);
+    for (int i = 0; i < 10; i++) {
+      MethodBehavior unknown = behaviorCache.get("org.foo.Unknown#unknown" + i + "()V");
+      assertThat(unknown.isComplete()).isFalse();
+    }
+    behaviorCache.get(TEST_CLASS + "fun(ZLjava/lang/Object;)Ljava/lang/Object;");
+    behaviorCache.get(TEST_CLASS + "fun2(Z)Ljava/lang/Object;");
+    assertThat(behaviorCache.evictions()).isZero();
+
+    behaviorCache.get("org.foo.Unknown#unknown0()V");
+    assertThat(behaviorCache.hits()).isEqualTo(1);
+    assertThat(behaviorCache.misses()).isEqualTo(12);
+  }
+
+  private static BehaviorCache behaviorCache(int maxCachedYields) {
+    BehaviorCache behaviorCache = new BehaviorCache(squidClassLoader);
+    behaviorCache.setFileContext(null, semanticModel);
+    behaviorCache.setMaxCachedYields(maxCachedYields);
+    return behaviorCache;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BehaviorStoreTest {
+
+  private static final String FUN = "org.sonar.java.bytecode.se.testdata.BytecodeTestClass#fun(ZLjava/lang/Object;)Ljava/lang/Object;";
+  private static final String THROW_EXCEPTION = "org.sonar.java.bytecode.se.testdata.BytecodeTestClass#throw_exception()V";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static SquidClassLoader squidClassLoader;
+  private static SemanticModel semanticModel;
+
+  @BeforeClass
+  public static void setUp() {
+    List<File> files = Lists.newArrayList(new File("target/test-classes"), new File("target/classes"));
+    files.addAll(FileUtils.listFiles(new File("target/test-jars"), new String[] {"jar"}, false));
+    squidClassLoader = new SquidClassLoader(files);
+    semanticModel = SemanticModel.createFor((CompilationUnitTree) JavaParser.createParser().parse("class A {}"), squidClassLoader);
+  }
+
+  @Test
+  public void behaviors_are_reused_by_later_analyses() throws Exception {
+    File directory = temp.newFolder();
+    BehaviorCache behaviorCache = behaviorCache(directory);
+    MethodBehavior computed = behaviorCache.get(FUN);
+    assertThat(computed.isComplete()).isTrue();
+    behaviorCache.saveBehaviorStore();
+    assertThat(new File(directory, "behaviors-xfile.json")).isFile();
+
+    MethodBehavior restored = behaviorCache(directory).get(FUN);
+    assertThat(restored).isNotSameAs(computed);
+    assertThat(restored.isComplete()).isTrue();
+    assertThat(restored.isMethodVarArgs()).isEqualTo(computed.isMethodVarArgs());
+    assertThat(restored.getDeclaredExceptions()).isEqualTo(computed.getDeclaredExceptions());
+    assertThat(restored.yields()).hasSize(2).isEqualTo(computed.yields());
+  }
+
+  @Test
+  public void behaviors_depend_on_classes_of_invoked_methods() throws Exception {
+    File directory = temp.newFolder();
+    BehaviorCache behaviorCache = behaviorCache(directory);
+    MethodBehavior computed = behaviorCache.get(THROW_EXCEPTION);
+    behaviorCache.saveBehaviorStore();
+
+    BehaviorStore behaviorStore = new BehaviorStore(new File(directory, "behaviors-xfile.json"));
+    assertThat(behaviorStore.dependencies(THROW_EXCEPTION)).containsOnly("org.sonar.java.bytecode.se.testdata.BytecodeTestClass", "java.lang.RuntimeException");
+    MethodBehavior restored = behaviorCache(directory).get(THROW_EXCEPTION);
+    assertThat(restored).isNotSameAs(computed);
+    assertThat(restored.yields()).isEqualTo(computed.yields());
+    assertThat(restored.exceptionalPathYields().findFirst().get().exceptionTypeName()).isEqualTo("java.lang.RuntimeException");
+  }
+
+  @Test
+  public void behaviors_computed_from_changed_classes_are_not_reused() throws Exception {
+    File file = new File(temp.newFolder(), "behaviors.json");
+    BehaviorStore behaviorStore = new BehaviorStore(file);
+    MethodBehavior methodBehavior = behaviorCache(temp.newFolder()).get(FUN);
+    behaviorStore.put(methodBehavior, ImmutableMap.of("org.sonar.java.bytecode.se.testdata.BytecodeTestClass", "hash"));
+    behaviorStore.save();
+
+    behaviorStore = new BehaviorStore(file);
+    assertThat(behaviorStore.get(FUN, className -> "hash")).isNotNull();
+    assertThat(behaviorStore.get(FUN, className -> "other hash")).isNull();
+    assertThat(behaviorStore.get(THROW_EXCEPTION, className -> "hash")).isNull();
+  }
+
+  @Test
+  public void behaviors_saved_by_concurrent_analyses_are_kept() throws Exception {
+    File file = new File(temp.newFolder(), "behaviors.json");
+    BehaviorStore first = new BehaviorStore(file);
+    BehaviorStore second = new BehaviorStore(file);
+    BehaviorCache behaviorCache = behaviorCache(temp.newFolder());
+    first.put(behaviorCache.get(FUN), ImmutableMap.of("org.sonar.java.bytecode.se.testdata.BytecodeTestClass", "hash"));
+    second.put(behaviorCache.get(THROW_EXCEPTION), ImmutableMap.of("org.sonar.java.bytecode.se.testdata.BytecodeTestClass", "hash"));
+    first.save();
+    second.save();
+
+    BehaviorStore behaviorStore = new BehaviorStore(file);
+    assertThat(behaviorStore.get(FUN, className -> "hash")).isNotNull();
+    assertThat(behaviorStore.get(THROW_EXCEPTION, className -> "hash")).isNotNull();
+  }
+
+  @Test
+  public void least_recently_used_behaviors_are_evicted() throws Exception {
+    File file = new File(temp.newFolder(), "behaviors.json");
+    BehaviorCache behaviorCache = behaviorCache(temp.newFolder());
+    BehaviorStore behaviorStore = new BehaviorStore(file, 1);
+    behaviorStore.put(behaviorCache.get(FUN), ImmutableMap.of("org.sonar.java.bytecode.se.testdata.BytecodeTestClass", "hash"));
+    behaviorStore.save();
+
+    behaviorStore = new BehaviorStore(file, 1);
+    behaviorStore.put(behaviorCache.get(THROW_EXCEPTION), ImmutableMap.of("org.sonar.java.bytecode.se.testdata.BytecodeTestClass", "hash"));
+    behaviorStore.save();
+
+    behaviorStore = new BehaviorStore(file, 1);
+    assertThat(behaviorStore.get(FUN, className -> "hash")).isNull();
+    assertThat(behaviorStore.get(THROW_EXCEPTION, className -> "hash")).isNotNull();
+  }
+
+  @Test
+  public void unreadable_store_is_ignored() throws Exception {
+    File file = temp.newFile("behaviors.json");
+    FileUtils.write(file, "{not json", "UTF-8");
+    assertThat(new BehaviorStore(file).get(FUN, className -> "")).isNull();
+  }
+
+  private static BehaviorCache behaviorCache(File directory) {
+    BehaviorCache behaviorCache = new BehaviorCache(squidClassLoader);
+    behaviorCache.setFileContext(null, semanticModel);
+    behaviorCache.useBehaviorStore(directory);
+    return behaviorCache;
+  }
+}